@@ -26,6 +26,7 @@ import wiremock.admin.model.SingleServedStubResult;
 import wiremock.admin.model.SingleStubMappingResult;
 import wiremock.client.MappingBuilder;
 import wiremock.client.WireMock;
+import wiremock.common.BodyFileCacheStats;
 import wiremock.common.FatalStartupException;
 import wiremock.common.FileSource;
 import wiremock.common.Notifier;
@@ -54,6 +55,7 @@ import wiremock.stubbing.StubMapping;
 import wiremock.stubbing.StubMappingJsonRecorder;
 import wiremock.verification.FindNearMissesResult;
 import wiremock.verification.FindRequestsResult;
+import wiremock.verification.JournalQueueStats;
 import wiremock.verification.LoggedRequest;
 import wiremock.verification.NearMiss;
 import wiremock.verification.VerificationResult;
@@ -153,9 +155,11 @@ public class WireMockServer implements Container, Stubbing, Admin {
 
   public void stop() {
     httpServer.stop();
+    wireMockApp.stopRequestJournal();
   }
 
   public void start() {
+    wireMockApp.startRequestJournal();
     try {
       httpServer.start();
     } catch (Exception e) {
@@ -322,6 +326,11 @@ public class WireMockServer implements Container, Stubbing, Admin {
     wireMockApp.addStubMapping(stubMapping);
   }
 
+  @Override
+  public void importStubMappings(List<StubMapping> stubMappings) {
+    wireMockApp.importStubMappings(stubMappings);
+  }
+
   @Override
   public void editStubMapping(StubMapping stubMapping) {
     wireMockApp.editStubMapping(stubMapping);
@@ -352,6 +361,21 @@ public class WireMockServer implements Container, Stubbing, Admin {
     wireMockApp.resetRequests();
   }
 
+  @Override
+  public void flushRequestJournal() {
+    wireMockApp.flushRequestJournal();
+  }
+
+  @Override
+  public JournalQueueStats getRequestJournalQueueStats() {
+    return wireMockApp.getRequestJournalQueueStats();
+  }
+
+  @Override
+  public BodyFileCacheStats getBodyFileCacheStats() {
+    return wireMockApp.getBodyFileCacheStats();
+  }
+
   @Override
   public void resetToDefaultMappings() {
     wireMockApp.resetToDefaultMappings();
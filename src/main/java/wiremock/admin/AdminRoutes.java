@@ -72,6 +72,7 @@ public class AdminRoutes {
     router.add(POST, "/mappings/remove", OldRemoveStubMappingTask.class); // Deprecated
     router.add(POST, "/mappings/edit", OldEditStubMappingTask.class); // Deprecated
     router.add(POST, "/mappings/save", SaveMappingsTask.class);
+    router.add(POST, "/mappings/import", ImportStubMappingsTask.class);
     router.add(POST, "/mappings/reset", ResetToDefaultMappingsTask.class);
     router.add(GET, "/mappings/{id}", GetStubMappingTask.class);
     router.add(PUT, "/mappings/{id}", EditStubMappingTask.class);
@@ -80,6 +81,7 @@ public class AdminRoutes {
     router.add(POST, "/mappings/remove-by-metadata", RemoveStubMappingsByMetadataTask.class);
 
     router.add(GET, "/files", GetAllStubFilesTask.class);
+    router.add(GET, "/files/cache", GetBodyFileCacheStatsTask.class);
     router.add(PUT, "/files/{filename}", EditStubFileTask.class);
     router.add(DELETE, "/files/{filename}", DeleteStubFileTask.class);
 
@@ -91,6 +93,8 @@ public class AdminRoutes {
     router.add(POST, "/requests/reset", OldResetRequestsTask.class); // Deprecated
     router.add(POST, "/requests/count", GetRequestCountTask.class);
     router.add(POST, "/requests/find", FindRequestsTask.class);
+    router.add(POST, "/requests/flush", FlushRequestJournalTask.class);
+    router.add(GET, "/requests/queue", GetRequestJournalQueueStatsTask.class);
     router.add(GET, "/requests/unmatched", FindUnmatchedRequestsTask.class);
     router.add(GET, "/requests/unmatched/near-misses", FindNearMissesForUnmatchedTask.class);
     router.add(GET, "/requests/{id}", GetServedStubTask.class);
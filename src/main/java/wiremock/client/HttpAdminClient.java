@@ -50,6 +50,7 @@ import wiremock.security.NotAuthorisedException;
 import wiremock.stubbing.StubMapping;
 import wiremock.verification.FindNearMissesResult;
 import wiremock.verification.FindRequestsResult;
+import wiremock.verification.JournalQueueStats;
 import wiremock.verification.LoggedRequest;
 import wiremock.verification.VerificationResult;
 
@@ -148,6 +149,23 @@ public class HttpAdminClient implements Admin {
         Void.class);
   }
 
+  @Override
+  public void importStubMappings(List<StubMapping> stubMappings) {
+    for (StubMapping stubMapping : stubMappings) {
+      if (stubMapping.getRequest().hasCustomMatcher()) {
+        throw new AdminException(
+            "Custom matchers can't be used when administering a remote WireMock server. "
+                + "Use WireMockRule.stubFor() or WireMockServer.stubFor() to administer the local instance.");
+      }
+    }
+
+    executeRequest(
+        adminRoutes.requestSpecForTask(ImportStubMappingsTask.class),
+        PathParams.empty(),
+        stubMappings,
+        Void.class);
+  }
+
   @Override
   public void editStubMapping(StubMapping stubMapping) {
     postJsonAssertOkAndReturnBody(urlFor(OldEditStubMappingTask.class), Json.write(stubMapping));
@@ -188,6 +206,25 @@ public class HttpAdminClient implements Admin {
     executeRequest(adminRoutes.requestSpecForTask(ResetRequestsTask.class));
   }
 
+  @Override
+  public void flushRequestJournal() {
+    executeRequest(adminRoutes.requestSpecForTask(FlushRequestJournalTask.class));
+  }
+
+  @Override
+  public JournalQueueStats getRequestJournalQueueStats() {
+    return executeRequest(
+        adminRoutes.requestSpecForTask(GetRequestJournalQueueStatsTask.class),
+        JournalQueueStats.class);
+  }
+
+  @Override
+  public BodyFileCacheStats getBodyFileCacheStats() {
+    return executeRequest(
+        adminRoutes.requestSpecForTask(GetBodyFileCacheStatsTask.class),
+        BodyFileCacheStats.class);
+  }
+
   @Override
   public void resetScenarios() {
     executeRequest(adminRoutes.requestSpecForTask(ResetScenariosTask.class));
@@ -119,6 +119,10 @@ public class WireMock {
     return givenThat(mappingBuilder);
   }
 
+  public static void importStubs(List<StubMapping> mappings) {
+    defaultInstance.get().importStubMappings(mappings);
+  }
+
   public static void editStub(MappingBuilder mappingBuilder) {
     defaultInstance.get().editStubMapping(mappingBuilder);
   }
@@ -285,6 +289,14 @@ public class WireMock {
     admin.resetRequests();
   }
 
+  public static void flushAllRequests() {
+    defaultInstance.get().flushRequestJournal();
+  }
+
+  public void flushRequestJournal() {
+    admin.flushRequestJournal();
+  }
+
   public void resetScenarios() {
     admin.resetScenarios();
   }
@@ -319,6 +331,10 @@ public class WireMock {
     admin.addStubMapping(mapping);
   }
 
+  public void importStubMappings(List<StubMapping> mappings) {
+    admin.importStubMappings(mappings);
+  }
+
   public void editStubMapping(MappingBuilder mappingBuilder) {
     admin.editStubMapping(mappingBuilder.build());
   }
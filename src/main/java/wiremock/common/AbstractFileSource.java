@@ -18,6 +18,7 @@ package wiremock.common;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
+import static wiremock.common.Exceptions.throwUnchecked;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
@@ -26,6 +27,13 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
 import java.util.List;
 import wiremock.security.NotAuthorisedException;
 
@@ -74,20 +82,33 @@ public abstract class AbstractFileSource implements FileSource {
   @Override
   public List<TextFile> listFilesRecursively() {
     assertExistsAndIsDirectory();
-    List<File> fileList = newArrayList();
-    recursivelyAddFilesToList(rootDirectory, fileList);
-    return toTextFileList(fileList);
-  }
-
-  private void recursivelyAddFilesToList(File root, List<File> fileList) {
-    File[] files = root.listFiles();
-    for (File file : files) {
-      if (file.isDirectory()) {
-        recursivelyAddFilesToList(file, fileList);
-      } else {
-        fileList.add(file);
-      }
+    final List<File> fileList = newArrayList();
+    try {
+      java.nio.file.Files.walkFileTree(
+          rootDirectory.toPath(),
+          EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+          Integer.MAX_VALUE,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              fileList.add(file.toFile());
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc)
+                throws IOException {
+              if (exc instanceof FileSystemLoopException) {
+                return FileVisitResult.CONTINUE;
+              }
+              throw exc;
+            }
+          });
+    } catch (IOException ioe) {
+      throwUnchecked(ioe);
     }
+
+    return toTextFileList(fileList);
   }
 
   private List<TextFile> toTextFileList(List<File> fileList) {
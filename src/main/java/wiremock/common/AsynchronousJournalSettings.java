@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+public class AsynchronousJournalSettings {
+
+  public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+  public static final AsynchronousJournalSettings DISABLED =
+      new AsynchronousJournalSettings(false, DEFAULT_QUEUE_SIZE, JournalOverflowPolicy.BLOCK);
+
+  private final boolean enabled;
+  private final int queueSize;
+  private final JournalOverflowPolicy overflowPolicy;
+
+  public AsynchronousJournalSettings(
+      boolean enabled, int queueSize, JournalOverflowPolicy overflowPolicy) {
+    this.enabled = enabled;
+    this.queueSize = queueSize;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public JournalOverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+}
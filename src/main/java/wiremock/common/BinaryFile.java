@@ -17,7 +17,9 @@ package wiremock.common;
 
 import static wiremock.common.Exceptions.throwUnchecked;
 
+import com.google.common.base.Optional;
 import com.google.common.io.ByteStreams;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -42,6 +44,11 @@ public class BinaryFile implements InputStreamSource {
     return uri;
   }
 
+  /** The file on the local file system this reads from, if it isn't a resource or remote URL. */
+  public Optional<File> getLocalFile() {
+    return "file".equals(uri.getScheme()) ? Optional.of(new File(uri)) : Optional.<File>absent();
+  }
+
   public String name() {
     return uri.toString();
   }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+import wiremock.security.NotAuthorisedException;
+
+/**
+ * Keeps the contents of recently served body files in memory, up to a total byte budget, evicting
+ * the least recently used. A cached body is only served while the file's size and modification
+ * time are unchanged, so edited files are picked up on the next request. Files bigger than a
+ * sixteenth of the budget, and file sources that aren't on the local file system, are always
+ * read from disk. Compressed encodings of a cached body are kept with it, but only its plain
+ * length counts towards the budget.
+ */
+public class BodyFileCache {
+
+  public static final long DEFAULT_BUDGET_BYTES = 32 * 1024 * 1024;
+
+  private final FileSource fileSource;
+  private final long budgetBytes;
+  private final long maxFileBytes;
+  private final Optional<String> canonicalRootPath;
+  private final Cache<String, CachedBodyFile> cache;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public BodyFileCache(FileSource fileSource, long budgetBytes) {
+    this.fileSource = fileSource;
+    this.budgetBytes = Math.max(budgetBytes, 0);
+    this.maxFileBytes = Math.min(this.budgetBytes / 16, Integer.MAX_VALUE);
+    this.canonicalRootPath =
+        this.budgetBytes > 0 ? canonicalPathOf(fileSource) : Optional.<String>absent();
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(this.budgetBytes)
+            .weigher(
+                new Weigher<String, CachedBodyFile>() {
+                  @Override
+                  public int weigh(String path, CachedBodyFile bodyFile) {
+                    return bodyFile.body.length();
+                  }
+                })
+            .recordStats()
+            .build();
+  }
+
+  public static BodyFileCache disabled(FileSource fileSource) {
+    return new BodyFileCache(fileSource, 0);
+  }
+
+  public InputStreamSource getBodyFileNamed(String name) {
+    if (!canonicalRootPath.isPresent()) {
+      return fileSource.getBinaryFileNamed(name);
+    }
+
+    File file = fileNamed(name);
+    String path = file.getPath();
+    CachedBodyFile cached = cache.getIfPresent(path);
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      cache.invalidate(path);
+      return fileSource.getBinaryFileNamed(name);
+    } catch (IOException e) {
+      return fileSource.getBinaryFileNamed(name);
+    }
+
+    if (cached != null && cached.isCurrent(attributes)) {
+      hits.incrementAndGet();
+      return cached.body;
+    }
+
+    misses.incrementAndGet();
+    assertFileIsUnderRoot(file, name);
+    if (!attributes.isRegularFile() || attributes.size() > maxFileBytes) {
+      cache.invalidate(path);
+      return new BinaryFile(file.toURI());
+    }
+
+    try {
+      CompressedBodies body = new CompressedBodies(Files.readAllBytes(file.toPath()));
+      cache.put(path, new CachedBodyFile(body, attributes));
+      return body;
+    } catch (IOException e) {
+      cache.invalidate(path);
+      return new BinaryFile(file.toURI());
+    }
+  }
+
+  /**
+   * Caches a body file whose contents were read ahead of time, as they are from a mappings
+   * snapshot, so the first request for it needn't go to disk. It's only served while the file
+   * still has the given modification time and the body's length, and is ignored if the file
+   * wouldn't otherwise have been cached.
+   */
+  public void preload(String name, byte[] body, long lastModified) {
+    if (!canonicalRootPath.isPresent() || body.length > maxFileBytes) {
+      return;
+    }
+
+    File file = fileNamed(name);
+    try {
+      assertFileIsUnderRoot(file, name);
+    } catch (NotAuthorisedException e) {
+      // Left for getBodyFileNamed to refuse when it's asked for
+      return;
+    }
+
+    cache.put(
+        file.getPath(), new CachedBodyFile(new CompressedBodies(body), body.length, lastModified));
+  }
+
+  public BodyFileCacheStats getStats() {
+    long sizeBytes = 0;
+    for (CachedBodyFile bodyFile : cache.asMap().values()) {
+      sizeBytes += bodyFile.body.length();
+    }
+
+    return new BodyFileCacheStats(
+        budgetBytes,
+        sizeBytes,
+        cache.size(),
+        hits.get(),
+        misses.get(),
+        cache.stats().evictionCount());
+  }
+
+  private File fileNamed(String name) {
+    return new File(name).isAbsolute() ? new File(name) : new File(fileSource.getPath(), name);
+  }
+
+  private void assertFileIsUnderRoot(File file, String name) {
+    try {
+      if (!file.getCanonicalPath().startsWith(canonicalRootPath.get())) {
+        throw new NotAuthorisedException("Access to file " + name + " is not permitted");
+      }
+    } catch (IOException ioe) {
+      throw new NotAuthorisedException("File " + name + " cannot be accessed", ioe);
+    }
+  }
+
+  private static Optional<String> canonicalPathOf(FileSource fileSource) {
+    if (!"file".equals(fileSource.getUri().getScheme())) {
+      return Optional.absent();
+    }
+
+    try {
+      return Optional.of(new File(fileSource.getPath()).getCanonicalPath());
+    } catch (IOException e) {
+      return Optional.absent();
+    }
+  }
+
+  private static class CachedBodyFile {
+    final CompressedBodies body;
+    final long size;
+    final long lastModified;
+
+    CachedBodyFile(CompressedBodies body, BasicFileAttributes attributes) {
+      this(body, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    CachedBodyFile(CompressedBodies body, long size, long lastModified) {
+      this.body = body;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    boolean isCurrent(BasicFileAttributes attributes) {
+      return attributes.size() == size
+          && attributes.lastModifiedTime().toMillis() == lastModified
+          && body.length() == size;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BodyFileCacheStats {
+
+  private final long budgetBytes;
+  private final long sizeBytes;
+  private final long entries;
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+
+  @JsonCreator
+  public BodyFileCacheStats(
+      @JsonProperty("budgetBytes") long budgetBytes,
+      @JsonProperty("sizeBytes") long sizeBytes,
+      @JsonProperty("entries") long entries,
+      @JsonProperty("hits") long hits,
+      @JsonProperty("misses") long misses,
+      @JsonProperty("evictions") long evictions) {
+    this.budgetBytes = budgetBytes;
+    this.sizeBytes = sizeBytes;
+    this.entries = entries;
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  public long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  public long getEntries() {
+    return entries;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+}
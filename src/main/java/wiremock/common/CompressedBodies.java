@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import static wiremock.common.Exceptions.throwUnchecked;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A body that can also be served gzip or deflate encoded. Each encoding is compressed the first
+ * time it's asked for and then kept, so a body served many times is only compressed once.
+ */
+public class CompressedBodies implements InputStreamSource {
+
+  public static final String GZIP = "gzip";
+  public static final String DEFLATE = "deflate";
+
+  /** Bodies smaller than this aren't worth compressing, matching Jetty's gzip handler. */
+  public static final int MIN_COMPRESS_SIZE = 256;
+
+  private final byte[] body;
+  private final Supplier<Optional<byte[]>> gzipped;
+  private final Supplier<Optional<byte[]>> deflated;
+
+  public CompressedBodies(final byte[] body) {
+    this.body = body;
+    this.gzipped =
+        Suppliers.memoize(
+            new Supplier<Optional<byte[]>>() {
+              @Override
+              public Optional<byte[]> get() {
+                return smallerThanBody(Gzip.gzip(body));
+              }
+            });
+    this.deflated =
+        Suppliers.memoize(
+            new Supplier<Optional<byte[]>>() {
+              @Override
+              public Optional<byte[]> get() {
+                return smallerThanBody(deflate(body));
+              }
+            });
+  }
+
+  @Override
+  public InputStream getStream() {
+    return new ByteArrayInputStream(body);
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  public int length() {
+    return body.length;
+  }
+
+  public boolean isWorthCompressing() {
+    return body.length >= MIN_COMPRESS_SIZE;
+  }
+
+  /**
+   * Returns the body in the given encoding, or absent if the encoding isn't supported, the body is
+   * too small to be worth compressing or compressing it doesn't make it any smaller.
+   */
+  public Optional<byte[]> encodedAs(String encoding) {
+    if (!isWorthCompressing()) {
+      return Optional.absent();
+    }
+
+    if (GZIP.equals(encoding)) {
+      return gzipped.get();
+    } else if (DEFLATE.equals(encoding)) {
+      return deflated.get();
+    }
+
+    return Optional.absent();
+  }
+
+  private Optional<byte[]> smallerThanBody(byte[] compressed) {
+    return compressed.length < body.length ? Optional.of(compressed) : Optional.<byte[]>absent();
+  }
+
+  private static byte[] deflate(byte[] content) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(bytes);
+      deflaterOutputStream.write(content);
+      deflaterOutputStream.close();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      return throwUnchecked(e, byte[].class);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs tasks after a delay using a hashed timing wheel, so that scheduling and expiring a task
+ * costs the same however many are waiting, unlike the heap behind a {@link
+ * java.util.concurrent.ScheduledThreadPoolExecutor}. Tasks run late by up to one tick, never early.
+ *
+ * <p>Tasks run on the timer's single thread, so they should only hand work off elsewhere. The
+ * thread is only started when the first task is scheduled, and sleeps while there's nothing to
+ * run. Tasks scheduled while the timer isn't running, and those still waiting when it's stopped,
+ * are run straight away rather than dropped.
+ */
+public class HashedWheelTimer {
+
+  public static final long DEFAULT_TICK_MILLIS = 1;
+  public static final int DEFAULT_TICKS_PER_WHEEL = 1024;
+
+  private final String threadName;
+  private final long tickNanos;
+  private final int mask;
+  private final List<Queue<Timeout>> wheel;
+  private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+  private volatile boolean running;
+  private volatile Thread worker;
+  private volatile boolean idle;
+  private long startTime;
+  private long tick;
+  private int timeoutsInWheel;
+
+  public HashedWheelTimer(String threadName) {
+    this(threadName, DEFAULT_TICK_MILLIS, MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+  }
+
+  public HashedWheelTimer(
+      String threadName, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+    checkArgument(tickDuration > 0, "Tick duration must be positive");
+    checkArgument(
+        ticksPerWheel > 0 && Integer.bitCount(ticksPerWheel) == 1,
+        "Ticks per wheel must be a power of two");
+
+    this.threadName = threadName;
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.mask = ticksPerWheel - 1;
+    this.wheel = new ArrayList<>(ticksPerWheel);
+    for (int i = 0; i < ticksPerWheel; i++) {
+      wheel.add(new ArrayDeque<Timeout>());
+    }
+  }
+
+  /** Lets tasks be scheduled. The timer's thread is started by the first one. */
+  public synchronized void start() {
+    running = true;
+  }
+
+  /** Whether tasks are being run after their delays, rather than straight away. */
+  public boolean isRunning() {
+    return running;
+  }
+
+  public void schedule(Runnable task, long delay, TimeUnit unit) {
+    Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(Math.max(delay, 0)));
+    if (!running) {
+      runNow(timeout);
+      return;
+    }
+
+    pendingTimeouts.add(timeout);
+    Thread currentWorker = worker;
+    if (currentWorker == null) {
+      startWorker();
+    } else if (idle) {
+      LockSupport.unpark(currentWorker);
+    }
+
+    // Stopped in the meantime, in which case this task may have missed being run by stop()
+    if (!running) {
+      runPendingTimeouts();
+    }
+  }
+
+  /**
+   * Stops the timer, first running any tasks still waiting, however long they had left. It can be
+   * started again.
+   */
+  public synchronized void stop() {
+    running = false;
+    if (worker != null) {
+      // Wakes it whether it's idle or waiting for the next tick
+      LockSupport.unpark(worker);
+      boolean interrupted = false;
+      while (worker.isAlive()) {
+        try {
+          worker.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      worker = null;
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    for (Queue<Timeout> bucket : wheel) {
+      Timeout timeout;
+      while ((timeout = bucket.poll()) != null) {
+        runNow(timeout);
+      }
+    }
+    timeoutsInWheel = 0;
+    runPendingTimeouts();
+  }
+
+  private synchronized void startWorker() {
+    if (!running || worker != null) {
+      return;
+    }
+
+    startTime = System.nanoTime();
+    tick = 0;
+    worker =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                turnWheel();
+              }
+            },
+            threadName);
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  private void turnWheel() {
+    while (running) {
+      // Set before looking for work, so that a task scheduled meanwhile always wakes this thread
+      idle = true;
+      if (timeoutsInWheel == 0 && pendingTimeouts.isEmpty()) {
+        // Nothing to run, so sleep until something is scheduled, then pick up at the current tick
+        LockSupport.park(this);
+        idle = false;
+        tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+        continue;
+      }
+      idle = false;
+
+      waitForNextTick();
+      if (!running) {
+        return;
+      }
+
+      addPendingTimeouts();
+      expireTimeouts(wheel.get((int) (tick & mask)));
+      tick++;
+    }
+  }
+
+  private void waitForNextTick() {
+    long deadline = startTime + (tick + 1) * tickNanos;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0 && running) {
+      LockSupport.parkNanos(this, remaining);
+    }
+  }
+
+  private void addPendingTimeouts() {
+    Timeout timeout;
+    while ((timeout = pendingTimeouts.poll()) != null) {
+      long expiryTick = Math.max(ticksUntil(timeout.deadline), tick);
+      timeout.remainingRounds = (expiryTick - tick) / wheel.size();
+      wheel.get((int) (expiryTick & mask)).add(timeout);
+      timeoutsInWheel++;
+    }
+  }
+
+  /** The first tick processed at or after the deadline. */
+  private long ticksUntil(long deadline) {
+    long elapsed = deadline - startTime;
+    return elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos - 1;
+  }
+
+  private void expireTimeouts(Queue<Timeout> bucket) {
+    Iterator<Timeout> timeouts = bucket.iterator();
+    while (timeouts.hasNext()) {
+      Timeout timeout = timeouts.next();
+      if (timeout.remainingRounds > 0) {
+        timeout.remainingRounds--;
+        continue;
+      }
+
+      timeouts.remove();
+      timeoutsInWheel--;
+      runNow(timeout);
+    }
+  }
+
+  private void runPendingTimeouts() {
+    Timeout timeout;
+    while ((timeout = pendingTimeouts.poll()) != null) {
+      runNow(timeout);
+    }
+  }
+
+  private static void runNow(Timeout timeout) {
+    try {
+      timeout.task.run();
+    } catch (RuntimeException e) {
+      Thread current = Thread.currentThread();
+      current.getUncaughtExceptionHandler().uncaughtException(current, e);
+    }
+  }
+
+  private static class Timeout {
+    final Runnable task;
+    final long deadline;
+    long remainingRounds;
+
+    Timeout(Runnable task, long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+  }
+}
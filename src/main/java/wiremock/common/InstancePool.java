@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a few idle instances of something that is costly to create and can't be used by two threads
+ * at once. Each user polls for an idle instance, creating one if there is none, and offers it back
+ * when done. Only up to {@code maxIdle} instances are kept, however many threads once used them, so
+ * the memory held doesn't grow with the size of the thread pool.
+ */
+public class InstancePool<T> {
+
+  private final int maxIdle;
+  private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger idleCount = new AtomicInteger();
+
+  public InstancePool(int maxIdle) {
+    this.maxIdle = maxIdle;
+  }
+
+  /** Returns an idle instance, or null if there is none. */
+  public T poll() {
+    T instance = idle.poll();
+    if (instance != null) {
+      idleCount.decrementAndGet();
+    }
+    return instance;
+  }
+
+  public void offer(T instance) {
+    if (idleCount.incrementAndGet() <= maxIdle) {
+      idle.add(instance);
+    } else {
+      idleCount.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+/** What an asynchronous request journal does with a serve event when its queue is full. */
+public enum JournalOverflowPolicy {
+  /** Discard the event, so the journal misses it but the request is never held up. */
+  DROP,
+  /** Wait for space in the queue, so nothing is lost but requests slow down with the consumer. */
+  BLOCK,
+  /**
+   * Keep only a sample of events once the queue is half full, and drop the rest when it's full.
+   */
+  SAMPLE
+}
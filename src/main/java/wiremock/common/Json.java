@@ -56,6 +56,17 @@ public final class Json {
     }
   }
 
+  public static <T> T read(JsonNode node, Class<T> clazz) {
+    try {
+      ObjectMapper mapper = getObjectMapper();
+      return mapper.treeToValue(node, clazz);
+    } catch (JsonMappingException mappingException) {
+      throw JsonException.fromJackson(mappingException);
+    } catch (IOException ioe) {
+      return throwUnchecked(ioe, clazz);
+    }
+  }
+
   public static <T> String write(T object) {
     return write(object, PublicView.class);
   }
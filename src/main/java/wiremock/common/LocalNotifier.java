@@ -32,6 +32,16 @@ public class LocalNotifier {
     notifierHolder.set(notifier);
   }
 
+  /**
+   * Sets the notifier and returns the one it replaces, which may be null. Code borrowing a thread
+   * it doesn't own, such as a fork-join worker, passes that back to {@link #set} when it's done.
+   */
+  public static Notifier replace(Notifier notifier) {
+    Notifier previous = notifierHolder.get();
+    notifierHolder.set(notifier);
+    return previous;
+  }
+
   private static class NullNotifier implements Notifier {
 
     @Override
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable copy of a byte array held in a direct buffer, outside the Java heap. The memory is
+ * freed by {@link #release()}, after which the bytes can no longer be read. Anything not released
+ * is freed when it's garbage collected.
+ */
+public class OffHeapBytes {
+
+  private final ByteBuffer buffer;
+  private final int length;
+  private boolean released;
+
+  private OffHeapBytes(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.length = buffer.limit();
+  }
+
+  public static OffHeapBytes copyOf(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes);
+    buffer.flip();
+    return new OffHeapBytes(buffer);
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public synchronized byte[] toByteArray() {
+    if (released) {
+      throw new IllegalStateException("Off-heap bytes have already been released");
+    }
+
+    byte[] bytes = new byte[length];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /** Frees the memory now rather than when this is garbage collected. */
+  public synchronized void release() {
+    if (!released) {
+      released = true;
+      DirectMemory.free(buffer);
+    }
+  }
+
+  /**
+   * Frees direct buffers without waiting for GC, with Unsafe.invokeCleaner on Java 9 and later or
+   * the buffer's own cleaner before that. If neither can be reached, buffers are left to GC.
+   */
+  private static class DirectMemory {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        unsafe = theUnsafe.get(null);
+      } catch (Exception e) {
+        invokeCleaner = null;
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+    }
+
+    static void free(ByteBuffer buffer) {
+      try {
+        if (INVOKE_CLEANER != null) {
+          INVOKE_CLEANER.invoke(UNSAFE, buffer);
+          return;
+        }
+
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+      } catch (Exception e) {
+        // Left for the garbage collector to free
+      }
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import static wiremock.common.Exceptions.throwUnchecked;
+import static wiremock.common.Strings.stringFromBytes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import java.nio.charset.Charset;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Remembers the documents parsed from the most recent string seen on the current thread, so that
+ * when one request body is evaluated against many stubs it is only parsed once per document type.
+ * Lookups are by string identity, so a cached document is only returned for the exact string
+ * instance it was parsed from. Parse failures are remembered too.
+ *
+ * <p>The string decoded from the most recent body is remembered in the same way, by the identity
+ * of its bytes, so that every document lookup for a request body is made with the same string.
+ *
+ * <p>Documents are only remembered while a {@link Scope} is open on the thread, and are released
+ * when it closes, so a thread doesn't hold on to the last body it saw once a request is done.
+ * Outside a scope every lookup parses afresh.
+ */
+public class ParsedDocumentCache {
+
+  private static final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+  private ParsedDocumentCache() {}
+
+  /**
+   * Starts remembering parsed documents on this thread until the returned scope is closed. If a
+   * scope is already open, the returned one does nothing when closed and the outer scope is kept.
+   */
+  public static Scope openScope() {
+    if (currentScope.get() != null) {
+      return Scope.NESTED;
+    }
+
+    Scope scope = new Scope();
+    currentScope.set(scope);
+    return scope;
+  }
+
+  public static String stringFor(byte[] bytes, Charset charset) {
+    Scope scope = currentScope.get();
+    if (scope == null) {
+      return stringFromBytes(bytes, charset);
+    }
+
+    if (scope.lastBytes != bytes || !charset.equals(scope.lastCharset)) {
+      scope.lastString = stringFromBytes(bytes, charset);
+      scope.lastBytes = bytes;
+      scope.lastCharset = charset;
+    }
+
+    return scope.lastString;
+  }
+
+  public static JsonNode jsonNodeFor(String json) {
+    return entryFor(json).jsonNode();
+  }
+
+  public static DocumentContext jsonPathDocumentFor(String json) {
+    return entryFor(json).jsonPathDocument();
+  }
+
+  /**
+   * Parses namespace aware. The returned DOM must be treated as read-only, and must not be handed
+   * to another thread, as DOM implementations are not safe for concurrent use.
+   */
+  public static Document xmlDocumentFor(String xml) throws SAXException {
+    return entryFor(xml).xmlDocument();
+  }
+
+  private static Entry entryFor(String value) {
+    Scope scope = currentScope.get();
+    if (scope == null) {
+      return new Entry(value);
+    }
+
+    if (scope.lastEntry == null || scope.lastEntry.value != value) {
+      scope.lastEntry = new Entry(value);
+    }
+
+    return scope.lastEntry;
+  }
+
+  public static class Scope implements AutoCloseable {
+
+    private static final Scope NESTED = new Scope();
+
+    private Entry lastEntry;
+    private byte[] lastBytes;
+    private Charset lastCharset;
+    private String lastString;
+
+    private Scope() {}
+
+    @Override
+    public void close() {
+      if (this != NESTED) {
+        currentScope.remove();
+      }
+    }
+  }
+
+  private static class Entry {
+
+    private final String value;
+
+    private JsonNode jsonNode;
+    private Exception jsonNodeFailure;
+    private DocumentContext jsonPathDocument;
+    private Exception jsonPathDocumentFailure;
+    private Document xmlDocument;
+    private SAXException xmlDocumentFailure;
+
+    Entry(String value) {
+      this.value = value;
+    }
+
+    JsonNode jsonNode() {
+      if (jsonNode == null && jsonNodeFailure == null) {
+        try {
+          jsonNode = Json.read(value, JsonNode.class);
+        } catch (Exception e) {
+          jsonNodeFailure = e;
+        }
+      }
+
+      return jsonNodeFailure != null ? throwUnchecked(jsonNodeFailure, JsonNode.class) : jsonNode;
+    }
+
+    DocumentContext jsonPathDocument() {
+      if (jsonPathDocument == null && jsonPathDocumentFailure == null) {
+        try {
+          jsonPathDocument = JsonPath.parse(value);
+        } catch (Exception e) {
+          jsonPathDocumentFailure = e;
+        }
+      }
+
+      return jsonPathDocumentFailure != null
+          ? throwUnchecked(jsonPathDocumentFailure, DocumentContext.class)
+          : jsonPathDocument;
+    }
+
+    Document xmlDocument() throws SAXException {
+      if (xmlDocument == null && xmlDocumentFailure == null) {
+        try {
+          xmlDocument = Xml.parse(value, true, new SilentErrorHandler());
+        } catch (SAXException e) {
+          xmlDocumentFailure = e;
+        }
+      }
+
+      if (xmlDocumentFailure != null) {
+        throw xmlDocumentFailure;
+      }
+
+      return xmlDocument;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import com.google.common.base.Optional;
+
+public class PersistentJournalSettings {
+
+  public static final long DEFAULT_SEGMENT_SIZE_BYTES = 64 * 1024 * 1024;
+
+  public static final PersistentJournalSettings DISABLED =
+      new PersistentJournalSettings(
+          null, DEFAULT_SEGMENT_SIZE_BYTES, Optional.<Long>absent(), Optional.<Long>absent());
+
+  private final String directory;
+  private final long segmentSizeBytes;
+  private final Optional<Long> maxRetainedBytes;
+  private final Optional<Long> maxAgeSeconds;
+
+  public PersistentJournalSettings(
+      String directory,
+      long segmentSizeBytes,
+      Optional<Long> maxRetainedBytes,
+      Optional<Long> maxAgeSeconds) {
+    this.directory = directory;
+    this.segmentSizeBytes = segmentSizeBytes;
+    this.maxRetainedBytes = maxRetainedBytes;
+    this.maxAgeSeconds = maxAgeSeconds;
+  }
+
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public long getSegmentSizeBytes() {
+    return segmentSizeBytes;
+  }
+
+  public Optional<Long> getMaxRetainedBytes() {
+    return maxRetainedBytes;
+  }
+
+  public Optional<Long> getMaxAgeSeconds() {
+    return maxAgeSeconds;
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.common;
+
+import java.util.concurrent.ForkJoinPool;
+
+/** A fork-join pool shared by everything that splits work across cores, created on first use. */
+public class SharedForkJoinPool {
+
+  private SharedForkJoinPool() {}
+
+  public static ForkJoinPool get() {
+    return Holder.POOL;
+  }
+
+  private static class Holder {
+    static final ForkJoinPool POOL = new ForkJoinPool();
+  }
+}
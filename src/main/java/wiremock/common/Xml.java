@@ -34,11 +34,17 @@ import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 public class Xml {
 
+  private static final ThreadLocal<DocumentBuilder> documentBuilders =
+      new PooledDocumentBuilder(false);
+  private static final ThreadLocal<DocumentBuilder> namespaceAwareDocumentBuilders =
+      new PooledDocumentBuilder(true);
+
   public static String prettyPrint(String xml) {
     try {
       return prettyPrint(read(xml));
@@ -76,14 +82,29 @@ public class Xml {
   }
 
   public static Document read(String xml) {
+    return read(xml, false);
+  }
+
+  public static Document read(String xml, boolean namespaceAware) {
     try {
-      DocumentBuilderFactory dbf = newDocumentBuilderFactory();
-      DocumentBuilder db = dbf.newDocumentBuilder();
-      InputSource is = new InputSource(new StringReader(xml));
-      return db.parse(is);
+      return parse(xml, namespaceAware, null);
     } catch (SAXException e) {
       throw XmlException.fromSaxException(e);
-    } catch (Exception e) {
+    }
+  }
+
+  /**
+   * Parses using a document builder pooled per thread. A null error handler gives the parser's
+   * default error reporting.
+   */
+  public static Document parse(String xml, boolean namespaceAware, ErrorHandler errorHandler)
+      throws SAXException {
+    try {
+      DocumentBuilder db =
+          namespaceAware ? namespaceAwareDocumentBuilders.get() : documentBuilders.get();
+      db.setErrorHandler(errorHandler);
+      return db.parse(new InputSource(new StringReader(xml)));
+    } catch (IOException e) {
       return throwUnchecked(e, Document.class);
     }
   }
@@ -125,6 +146,26 @@ public class Xml {
     }
   }
 
+  private static class PooledDocumentBuilder extends ThreadLocal<DocumentBuilder> {
+
+    private final boolean namespaceAware;
+
+    PooledDocumentBuilder(boolean namespaceAware) {
+      this.namespaceAware = namespaceAware;
+    }
+
+    @Override
+    protected DocumentBuilder initialValue() {
+      try {
+        DocumentBuilderFactory dbf = newDocumentBuilderFactory();
+        dbf.setNamespaceAware(namespaceAware);
+        return dbf.newDocumentBuilder();
+      } catch (ParserConfigurationException e) {
+        return throwUnchecked(e, DocumentBuilder.class);
+      }
+    }
+  }
+
   public static class SkipResolvingEntitiesDocumentBuilderFactory
       extends DocumentBuilderFactoryImpl {
     @Override
@@ -15,8 +15,10 @@
  */
 package wiremock.core;
 
+import java.util.List;
 import java.util.UUID;
 import wiremock.admin.model.*;
+import wiremock.common.BodyFileCacheStats;
 import wiremock.global.GlobalSettings;
 import wiremock.matching.RequestPattern;
 import wiremock.matching.StringValuePattern;
@@ -27,6 +29,7 @@ import wiremock.recording.SnapshotRecordResult;
 import wiremock.stubbing.StubMapping;
 import wiremock.verification.FindNearMissesResult;
 import wiremock.verification.FindRequestsResult;
+import wiremock.verification.JournalQueueStats;
 import wiremock.verification.LoggedRequest;
 import wiremock.verification.VerificationResult;
 
@@ -34,6 +37,8 @@ public interface Admin {
 
   void addStubMapping(StubMapping stubMapping);
 
+  void importStubMappings(List<StubMapping> stubMappings);
+
   void editStubMapping(StubMapping stubMapping);
 
   void removeStubMapping(StubMapping stubbMapping);
@@ -46,6 +51,12 @@ public interface Admin {
 
   void resetRequests();
 
+  void flushRequestJournal();
+
+  JournalQueueStats getRequestJournalQueueStats();
+
+  BodyFileCacheStats getBodyFileCacheStats();
+
   void resetScenarios();
 
   void resetMappings();
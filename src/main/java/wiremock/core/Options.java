@@ -18,11 +18,14 @@ package wiremock.core;
 import com.google.common.base.Optional;
 import java.util.List;
 import java.util.Map;
+import wiremock.common.AsynchronousJournalSettings;
 import wiremock.common.AsynchronousResponseSettings;
+import wiremock.common.BodyFileCache;
 import wiremock.common.FileSource;
 import wiremock.common.HttpsSettings;
 import wiremock.common.JettySettings;
 import wiremock.common.Notifier;
+import wiremock.common.PersistentJournalSettings;
 import wiremock.common.ProxySettings;
 import wiremock.extension.Extension;
 import wiremock.http.CaseInsensitiveKey;
@@ -31,6 +34,7 @@ import wiremock.http.ThreadPoolFactory;
 import wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import wiremock.security.Authenticator;
 import wiremock.standalone.MappingsLoader;
+import wiremock.stubbing.StubMatchingStrategy;
 import wiremock.verification.notmatched.NotMatchedRenderer;
 
 public interface Options {
@@ -64,6 +68,12 @@ public interface Options {
 
   Optional<Integer> maxRequestJournalEntries();
 
+  Optional<Integer> requestJournalOffHeapBodyThreshold();
+
+  PersistentJournalSettings getPersistentJournalSettings();
+
+  AsynchronousJournalSettings getAsynchronousJournalSettings();
+
   String bindAddress();
 
   List<CaseInsensitiveKey> matchingHeaders();
@@ -87,4 +97,10 @@ public interface Options {
   NotMatchedRenderer getNotMatchedRenderer();
 
   AsynchronousResponseSettings getAsynchronousResponseSettings();
+
+  StubMatchingStrategy getStubMatchingStrategy();
+
+  Optional<Integer> parallelStubMatchingThreshold();
+
+  BodyFileCache bodyFileCache();
 }
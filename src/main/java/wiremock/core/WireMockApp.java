@@ -23,13 +23,19 @@ import static wiremock.stubbing.ServeEvent.TO_LOGGED_REQUEST;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import wiremock.admin.AdminRoutes;
 import wiremock.admin.LimitAndOffsetPaginator;
 import wiremock.admin.model.*;
+import wiremock.common.AsynchronousJournalSettings;
+import wiremock.common.BodyFileCache;
+import wiremock.common.BodyFileCacheStats;
 import wiremock.common.FileSource;
+import wiremock.common.Notifier;
+import wiremock.common.PersistentJournalSettings;
 import wiremock.extension.*;
 import wiremock.global.GlobalSettings;
 import wiremock.global.GlobalSettingsHolder;
@@ -44,7 +50,6 @@ import wiremock.stubbing.ServeEvent;
 import wiremock.stubbing.StubMapping;
 import wiremock.stubbing.StubMappings;
 import wiremock.verification.*;
-import wiremock.verification.diff.PlainTextDiffRenderer;
 
 public class WireMockApp implements StubServer, Admin {
 
@@ -52,8 +57,6 @@ public class WireMockApp implements StubServer, Admin {
   public static final String ADMIN_CONTEXT_ROOT = "/__admin";
   public static final String MAPPINGS_ROOT = "mappings";
 
-  private static final PlainTextDiffRenderer diffRenderer = new PlainTextDiffRenderer();
-
   private final StubMappings stubMappings;
   private final RequestJournal requestJournal;
   private final GlobalSettingsHolder globalSettingsHolder;
@@ -62,6 +65,8 @@ public class WireMockApp implements StubServer, Admin {
   private final Container container;
   private final MappingsSaver mappingsSaver;
   private final NearMissCalculator nearMissCalculator;
+  private final UnmatchedRequestLogger unmatchedRequestLogger;
+  private final BodyFileCache bodyFileCache;
 
   private final Recorder recorder;
 
@@ -77,15 +82,23 @@ public class WireMockApp implements StubServer, Admin {
     this.mappingsSaver = options.mappingsSaver();
     globalSettingsHolder = new GlobalSettingsHolder();
     requestJournal =
-        options.requestJournalDisabled()
-            ? new DisabledRequestJournal()
-            : new InMemoryRequestJournal(options.maxRequestJournalEntries());
+        newRequestJournal(
+            options.requestJournalDisabled(),
+            options.maxRequestJournalEntries(),
+            options.requestJournalOffHeapBodyThreshold(),
+            options.getPersistentJournalSettings(),
+            options.getAsynchronousJournalSettings(),
+            options.notifier());
     stubMappings =
         new InMemoryStubMappings(
             options.extensionsOfType(RequestMatcherExtension.class),
             options.extensionsOfType(ResponseDefinitionTransformer.class),
-            fileSource);
+            fileSource,
+            options.getStubMatchingStrategy(),
+            options.parallelStubMatchingThreshold());
     nearMissCalculator = new NearMissCalculator(stubMappings, requestJournal);
+    unmatchedRequestLogger = new UnmatchedRequestLogger(nearMissCalculator);
+    bodyFileCache = options.bodyFileCache();
     recorder = new Recorder(this);
     this.container = container;
     loadDefaultMappings();
@@ -107,16 +120,56 @@ public class WireMockApp implements StubServer, Admin {
     this.mappingsSaver = mappingsSaver;
     globalSettingsHolder = new GlobalSettingsHolder();
     requestJournal =
-        requestJournalDisabled
-            ? new DisabledRequestJournal()
-            : new InMemoryRequestJournal(maxRequestJournalEntries);
+        newRequestJournal(
+            requestJournalDisabled,
+            maxRequestJournalEntries,
+            Optional.<Integer>absent(),
+            PersistentJournalSettings.DISABLED,
+            AsynchronousJournalSettings.DISABLED,
+            null);
     stubMappings = new InMemoryStubMappings(requestMatchers, transformers, rootFileSource);
     this.container = container;
     nearMissCalculator = new NearMissCalculator(stubMappings, requestJournal);
+    unmatchedRequestLogger = new UnmatchedRequestLogger(nearMissCalculator);
+    bodyFileCache = BodyFileCache.disabled(rootFileSource.child(FILES_ROOT));
     recorder = new Recorder(this);
     loadDefaultMappings();
   }
 
+  private static RequestJournal newRequestJournal(
+      boolean requestJournalDisabled,
+      Optional<Integer> maxRequestJournalEntries,
+      Optional<Integer> offHeapBodyThreshold,
+      PersistentJournalSettings persistentJournalSettings,
+      AsynchronousJournalSettings asynchronousJournalSettings,
+      Notifier notifier) {
+    if (requestJournalDisabled) {
+      return new DisabledRequestJournal();
+    }
+
+    RequestJournal requestJournal =
+        maxRequestJournalEntries.isPresent()
+            ? new RingBufferRequestJournal(maxRequestJournalEntries.get())
+            : new InMemoryRequestJournal(maxRequestJournalEntries);
+
+    // Below the persistent journal, whose writer still reads bodies after they've been journalled
+    if (offHeapBodyThreshold.isPresent()) {
+      requestJournal =
+          new OffHeapBodyRequestJournal(
+              requestJournal, offHeapBodyThreshold.get(), maxRequestJournalEntries);
+    }
+
+    if (persistentJournalSettings.isEnabled()) {
+      requestJournal =
+          new PersistentRequestJournal(
+              requestJournal, persistentJournalSettings, maxRequestJournalEntries, notifier);
+    }
+
+    return asynchronousJournalSettings.isEnabled()
+        ? new AsynchronousRequestJournal(requestJournal, asynchronousJournalSettings, notifier)
+        : requestJournal;
+  }
+
   public AdminRequestHandler buildAdminRequestHandler() {
     AdminRoutes adminRoutes =
         AdminRoutes.defaultsPlus(
@@ -136,6 +189,7 @@ public class WireMockApp implements StubServer, Admin {
         this,
         new StubResponseRenderer(
             options.filesRoot().child(FILES_ROOT),
+            bodyFileCache,
             getGlobalSettingsHolder(),
             new ProxyResponseRenderer(
                 options.proxyVia(),
@@ -166,39 +220,47 @@ public class WireMockApp implements StubServer, Admin {
     ServeEvent serveEvent = stubMappings.serveFor(request);
 
     if (serveEvent.isNoExactMatch()) {
-      LoggedRequest loggedRequest = LoggedRequest.createFrom(request);
+      LoggedRequest loggedRequest = serveEvent.getRequest();
       if (request.isBrowserProxyRequest() && browserProxyingEnabled) {
         return ServeEvent.of(loggedRequest, ResponseDefinition.browserProxy(request));
       }
 
-      logUnmatchedRequest(loggedRequest);
+      unmatchedRequestLogger.requestUnmatched(loggedRequest, notifier());
     }
 
     return serveEvent;
   }
 
-  private void logUnmatchedRequest(LoggedRequest request) {
-    List<NearMiss> nearest = nearMissCalculator.findNearestTo(request);
-    String message;
-    if (!nearest.isEmpty()) {
-      message = diffRenderer.render(nearest.get(0).getDiff());
-    } else {
-      message = "Request was not matched as there were no stubs registered:\n" + request;
-    }
-    notifier().error(message);
-  }
-
   @Override
   public void addStubMapping(StubMapping stubMapping) {
     stubMappings.addMapping(stubMapping);
+    unmatchedRequestLogger.stubMappingsChanged();
     if (stubMapping.shouldBePersisted()) {
       mappingsSaver.save(stubMapping);
     }
   }
 
+  @Override
+  public void importStubMappings(List<StubMapping> mappings) {
+    stubMappings.addMappings(mappings);
+    unmatchedRequestLogger.stubMappingsChanged();
+
+    List<StubMapping> toPersist = new ArrayList<>();
+    for (StubMapping stubMapping : mappings) {
+      if (stubMapping.shouldBePersisted()) {
+        stubMapping.setDirty(true);
+        toPersist.add(stubMapping);
+      }
+    }
+    if (!toPersist.isEmpty()) {
+      mappingsSaver.save(toPersist);
+    }
+  }
+
   @Override
   public void removeStubMapping(StubMapping stubMapping) {
     stubMappings.removeMapping(stubMapping);
+    unmatchedRequestLogger.stubMappingsChanged();
     if (stubMapping.shouldBePersisted()) {
       mappingsSaver.remove(stubMapping);
     }
@@ -207,6 +269,7 @@ public class WireMockApp implements StubServer, Admin {
   @Override
   public void editStubMapping(StubMapping stubMapping) {
     stubMappings.editMapping(stubMapping);
+    unmatchedRequestLogger.stubMappingsChanged();
     if (stubMapping.shouldBePersisted()) {
       mappingsSaver.save(stubMapping);
     }
@@ -237,11 +300,45 @@ public class WireMockApp implements StubServer, Admin {
     requestJournal.reset();
   }
 
+  /** Restarts the request journal's background work, if it has any, after it was stopped. */
+  public void startRequestJournal() {
+    if (requestJournal instanceof BackgroundRequestJournal) {
+      ((BackgroundRequestJournal) requestJournal).start();
+    }
+  }
+
+  /** Finishes journaling the requests already received and stops any background work. */
+  public void stopRequestJournal() {
+    if (requestJournal instanceof BackgroundRequestJournal) {
+      ((BackgroundRequestJournal) requestJournal).stop();
+    }
+  }
+
+  @Override
+  public void flushRequestJournal() {
+    requestJournal.flush();
+  }
+
+  @Override
+  public JournalQueueStats getRequestJournalQueueStats() {
+    if (requestJournal instanceof BackgroundRequestJournal) {
+      return ((BackgroundRequestJournal) requestJournal).getQueueStats();
+    }
+
+    return JournalQueueStats.synchronous();
+  }
+
+  @Override
+  public BodyFileCacheStats getBodyFileCacheStats() {
+    return bodyFileCache.getStats();
+  }
+
   @Override
   public void resetToDefaultMappings() {
     stubMappings.reset();
     resetRequests();
     loadDefaultMappings();
+    unmatchedRequestLogger.stubMappingsChanged();
   }
 
   @Override
@@ -253,6 +350,7 @@ public class WireMockApp implements StubServer, Admin {
   public void resetMappings() {
     mappingsSaver.removeAll();
     stubMappings.reset();
+    unmatchedRequestLogger.stubMappingsChanged();
   }
 
   @Override
@@ -19,6 +19,7 @@ import static com.google.common.collect.Lists.transform;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static wiremock.core.WireMockApp.FILES_ROOT;
 import static wiremock.core.WireMockApp.MAPPINGS_ROOT;
 import static wiremock.extension.ExtensionLoader.valueAssignableFrom;
 
@@ -43,6 +44,7 @@ import wiremock.security.NoAuthenticator;
 import wiremock.standalone.JsonFileMappingsSource;
 import wiremock.standalone.MappingsLoader;
 import wiremock.standalone.MappingsSource;
+import wiremock.stubbing.StubMatchingStrategy;
 import wiremock.verification.notmatched.NotMatchedRenderer;
 import wiremock.verification.notmatched.PlainTextStubNotMatchedRenderer;
 
@@ -70,6 +72,14 @@ public class WireMockConfiguration implements Options {
   private Notifier notifier = new Slf4jNotifier(false);
   private boolean requestJournalDisabled = false;
   private Optional<Integer> maxRequestJournalEntries = Optional.absent();
+  private Optional<Integer> requestJournalOffHeapBodyThreshold = Optional.absent();
+  private String requestJournalDirectory;
+  private long requestJournalSegmentSize = PersistentJournalSettings.DEFAULT_SEGMENT_SIZE_BYTES;
+  private Optional<Long> requestJournalMaxBytes = Optional.absent();
+  private Optional<Long> requestJournalMaxAgeSeconds = Optional.absent();
+  private boolean asynchronousRequestJournal = false;
+  private int requestJournalQueueSize = AsynchronousJournalSettings.DEFAULT_QUEUE_SIZE;
+  private JournalOverflowPolicy requestJournalOverflowPolicy = JournalOverflowPolicy.BLOCK;
   private List<CaseInsensitiveKey> matchingHeaders = emptyList();
 
   private boolean preserveHostHeader;
@@ -91,10 +101,17 @@ public class WireMockConfiguration implements Options {
   private NotMatchedRenderer notMatchedRenderer = new PlainTextStubNotMatchedRenderer();
   private boolean asynchronousResponseEnabled;
   private int asynchronousResponseThreads;
+  private StubMatchingStrategy stubMatchingStrategy = StubMatchingStrategy.DEFAULT;
+  private Optional<Integer> parallelStubMatchingThreshold = Optional.absent();
+  private int mappingsLoaderThreads = Runtime.getRuntime().availableProcessors();
+  private long bodyFileCacheBudgetBytes = BodyFileCache.DEFAULT_BUDGET_BYTES;
+  private BodyFileCache bodyFileCache;
 
   private MappingsSource getMappingsSource() {
     if (mappingsSource == null) {
-      mappingsSource = new JsonFileMappingsSource(filesRoot.child(MAPPINGS_ROOT));
+      mappingsSource =
+          new JsonFileMappingsSource(
+              filesRoot.child(MAPPINGS_ROOT), mappingsLoaderThreads, notifier, bodyFileCache());
     }
 
     return mappingsSource;
@@ -255,6 +272,46 @@ public class WireMockConfiguration implements Options {
     return this;
   }
 
+  public WireMockConfiguration requestJournalOffHeapBodyThreshold(int thresholdBytes) {
+    this.requestJournalOffHeapBodyThreshold = Optional.of(thresholdBytes);
+    return this;
+  }
+
+  public WireMockConfiguration requestJournalDirectory(String directory) {
+    this.requestJournalDirectory = directory;
+    return this;
+  }
+
+  public WireMockConfiguration requestJournalSegmentSize(long segmentSizeBytes) {
+    this.requestJournalSegmentSize = segmentSizeBytes;
+    return this;
+  }
+
+  public WireMockConfiguration requestJournalMaxBytes(long maxBytes) {
+    this.requestJournalMaxBytes = Optional.of(maxBytes);
+    return this;
+  }
+
+  public WireMockConfiguration requestJournalMaxAgeSeconds(long maxAgeSeconds) {
+    this.requestJournalMaxAgeSeconds = Optional.of(maxAgeSeconds);
+    return this;
+  }
+
+  public WireMockConfiguration asynchronousRequestJournal(boolean asynchronousRequestJournal) {
+    this.asynchronousRequestJournal = asynchronousRequestJournal;
+    return this;
+  }
+
+  public WireMockConfiguration requestJournalQueueSize(int queueSize) {
+    this.requestJournalQueueSize = queueSize;
+    return this;
+  }
+
+  public WireMockConfiguration requestJournalOverflowPolicy(JournalOverflowPolicy overflowPolicy) {
+    this.requestJournalOverflowPolicy = overflowPolicy;
+    return this;
+  }
+
   public WireMockConfiguration recordRequestHeadersForMatching(List<String> headers) {
     this.matchingHeaders = transform(headers, CaseInsensitiveKey.TO_CASE_INSENSITIVE_KEYS);
     return this;
@@ -330,6 +387,26 @@ public class WireMockConfiguration implements Options {
     return this;
   }
 
+  public WireMockConfiguration stubMatchingStrategy(StubMatchingStrategy stubMatchingStrategy) {
+    this.stubMatchingStrategy = stubMatchingStrategy;
+    return this;
+  }
+  public WireMockConfiguration parallelStubMatchingThreshold(int threshold) {
+    this.parallelStubMatchingThreshold = Optional.of(threshold);
+    return this;
+  }
+  public WireMockConfiguration mappingsLoaderThreads(int mappingsLoaderThreads) {
+    this.mappingsLoaderThreads = mappingsLoaderThreads;
+    return this;
+  }
+  public WireMockConfiguration bodyFileCacheBudget(long bytes) {
+    this.bodyFileCacheBudgetBytes = bytes;
+    return this;
+  }
+
+
+
+
   @Override
   public int portNumber() {
     return portNumber;
@@ -404,6 +481,26 @@ public class WireMockConfiguration implements Options {
     return maxRequestJournalEntries;
   }
 
+  @Override
+  public Optional<Integer> requestJournalOffHeapBodyThreshold() {
+    return requestJournalOffHeapBodyThreshold;
+  }
+
+  @Override
+  public PersistentJournalSettings getPersistentJournalSettings() {
+    return new PersistentJournalSettings(
+        requestJournalDirectory,
+        requestJournalSegmentSize,
+        requestJournalMaxBytes,
+        requestJournalMaxAgeSeconds);
+  }
+
+  @Override
+  public AsynchronousJournalSettings getAsynchronousJournalSettings() {
+    return new AsynchronousJournalSettings(
+        asynchronousRequestJournal, requestJournalQueueSize, requestJournalOverflowPolicy);
+  }
+
   @Override
   public String bindAddress() {
     return bindAddress;
@@ -465,4 +562,23 @@ public class WireMockConfiguration implements Options {
     return new AsynchronousResponseSettings(
         asynchronousResponseEnabled, asynchronousResponseThreads);
   }
+
+  @Override
+  public StubMatchingStrategy getStubMatchingStrategy() {
+    return stubMatchingStrategy;
+  }
+  @Override
+  public Optional<Integer> parallelStubMatchingThreshold() {
+    return parallelStubMatchingThreshold;
+  }
+  @Override
+  public BodyFileCache bodyFileCache() {
+    if (bodyFileCache == null) {
+      bodyFileCache = new BodyFileCache(filesRoot.child(FILES_ROOT), bodyFileCacheBudgetBytes);
+    }
+
+    return bodyFileCache;
+  }
+
+
 }
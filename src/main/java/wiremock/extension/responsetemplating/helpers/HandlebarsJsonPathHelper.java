@@ -16,13 +16,21 @@
 package wiremock.extension.responsetemplating.helpers;
 
 import com.github.jknack.handlebars.Options;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.JsonPathException;
 import java.io.IOException;
+import wiremock.common.ParsedDocumentCache;
 
 public class HandlebarsJsonPathHelper extends HandlebarsHelper<String> {
 
+  private static final int MAX_CACHED_PATHS = 1000;
+
+  private final Cache<String, JsonPath> compiledPaths =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATHS).build();
+
   @Override
   public Object apply(final String inputJson, final Options options) throws IOException {
     if (inputJson == null) {
@@ -35,7 +43,7 @@ public class HandlebarsJsonPathHelper extends HandlebarsHelper<String> {
 
     final String jsonPath = options.param(0);
     try {
-      Object result = JsonPath.read(inputJson, jsonPath);
+      Object result = ParsedDocumentCache.jsonPathDocumentFor(inputJson).read(compile(jsonPath));
       return JsonData.create(result);
     } catch (InvalidJsonException e) {
       return this.handleError(inputJson + " is not valid JSON", e.getJson(), e);
@@ -43,4 +51,14 @@ public class HandlebarsJsonPathHelper extends HandlebarsHelper<String> {
       return this.handleError(jsonPath + " is not a valid JSONPath expression", e);
     }
   }
+
+  private JsonPath compile(String jsonPath) {
+    JsonPath compiled = compiledPaths.getIfPresent(jsonPath);
+    if (compiled == null) {
+      compiled = JsonPath.compile(jsonPath);
+      compiledPaths.put(jsonPath, compiled);
+    }
+
+    return compiled;
+  }
 }
@@ -19,7 +19,9 @@ import static com.google.common.collect.Lists.newArrayList;
 import static wiremock.common.LocalNotifier.notifier;
 
 import java.util.List;
+import wiremock.common.ParsedDocumentCache;
 import wiremock.stubbing.ServeEvent;
+import wiremock.verification.LoggedRequest;
 
 public abstract class AbstractRequestHandler implements RequestHandler, RequestEventSource {
 
@@ -39,19 +41,30 @@ public abstract class AbstractRequestHandler implements RequestHandler, RequestE
 
   protected void afterResponseSent(ServeEvent serveEvent, Response response) {}
 
+  protected ServeEvent complete(ServeEvent serveEvent, Response response) {
+    return serveEvent.complete(response);
+  }
+
   @Override
   public void handle(Request request, HttpResponder httpResponder) {
-    ServeEvent serveEvent = handleRequest(request);
-    ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
-    responseDefinition.setOriginalRequest(request);
-    Response response = responseRenderer.render(responseDefinition);
-    ServeEvent completedServeEvent = serveEvent.complete(response);
+    // One snapshot is shared by matching, templating, journaling and the responder
+    LoggedRequest loggedRequest = LoggedRequest.createFrom(request);
+    ServeEvent serveEvent;
+    ResponseDefinition responseDefinition;
+    final Response response;
+    try (ParsedDocumentCache.Scope ignored = ParsedDocumentCache.openScope()) {
+      serveEvent = handleRequest(loggedRequest);
+      responseDefinition = serveEvent.getResponseDefinition();
+      responseDefinition.setOriginalRequest(loggedRequest);
+      response = responseRenderer.render(responseDefinition);
+    }
+    final ServeEvent completedServeEvent = complete(serveEvent, response);
 
     if (logRequests()) {
       notifier()
           .info(
               "Request received:\n"
-                  + formatRequest(request)
+                  + formatRequest(loggedRequest)
                   + "\n\nMatched response definition:\n"
                   + responseDefinition
                   + "\n\nResponse:\n"
@@ -59,14 +72,20 @@ public abstract class AbstractRequestHandler implements RequestHandler, RequestE
     }
 
     for (RequestListener listener : listeners) {
-      listener.requestReceived(request, response);
+      listener.requestReceived(loggedRequest, response);
     }
 
     beforeResponseSent(completedServeEvent, response);
 
-    httpResponder.respond(request, response);
-
-    afterResponseSent(completedServeEvent, response);
+    httpResponder.respond(
+        loggedRequest,
+        response,
+        new Runnable() {
+          @Override
+          public void run() {
+            afterResponseSent(completedServeEvent, response);
+          }
+        });
   }
 
   private static String formatRequest(Request request) {
@@ -64,11 +64,11 @@ public class HttpHeaders {
   }
 
   public HttpHeader getHeader(String key) {
-    if (!headers.containsKey(caseInsensitive(key))) {
+    Collection<String> values = headers.get(caseInsensitive(key));
+    if (values.isEmpty()) {
       return HttpHeader.absent(key);
     }
 
-    Collection<String> values = headers.get(caseInsensitive(key));
     return new HttpHeader(key, values);
   }
 
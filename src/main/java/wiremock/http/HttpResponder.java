@@ -17,4 +17,10 @@ package wiremock.http;
 
 public interface HttpResponder {
   void respond(Request request, Response response);
+
+  /**
+   * Sends the response, then runs {@code afterResponseSent}. A delayed response may be sent after
+   * this returns, in which case the callback runs later on whichever thread sent it.
+   */
+  void respond(Request request, Response response, Runnable afterResponseSent);
 }
@@ -19,8 +19,12 @@ import static com.google.common.net.MediaType.OCTET_STREAM;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import wiremock.common.Encoding;
+import wiremock.common.OffHeapBytes;
 import wiremock.common.Strings;
 
 public class LoggedResponse {
@@ -28,6 +32,9 @@ public class LoggedResponse {
   private final int status;
   private final HttpHeaders headers;
   private final byte[] body;
+  private final boolean bodyShared;
+  private final OffHeapBytes offHeapBody;
+  private final File bodyFile;
   private final Fault fault;
 
   public LoggedResponse(
@@ -40,22 +47,83 @@ public class LoggedResponse {
   }
 
   private LoggedResponse(int status, HttpHeaders headers, byte[] body, Fault fault) {
+    this(status, headers, body, false, null, null, fault);
+  }
+
+  private LoggedResponse(
+      int status,
+      HttpHeaders headers,
+      byte[] body,
+      boolean bodyShared,
+      OffHeapBytes offHeapBody,
+      File bodyFile,
+      Fault fault) {
     this.status = status;
     this.headers = headers;
     this.body = body;
+    this.bodyShared = bodyShared;
+    this.offHeapBody = offHeapBody;
+    this.bodyFile = bodyFile;
     this.fault = fault;
   }
 
+  /**
+   * Bodies served from a local file are recorded as a reference to that file and only read when
+   * asked for, rather than being copied into the journal. Static responses' bodies are shared with
+   * the response instead of being copied for each request.
+   */
   public static LoggedResponse from(Response response) {
+    File bodyFile = response.getBodyFile().orNull();
+    boolean bodyShared = bodyFile == null && response instanceof StaticResponse;
+    byte[] body = null;
+    if (bodyShared) {
+      body = ((StaticResponse) response).getSharedBody();
+    } else if (bodyFile == null) {
+      body = response.getBody();
+    }
+
     return new LoggedResponse(
         response.getStatus(),
         response.getHeaders() == null || response.getHeaders().all().isEmpty()
             ? null
             : response.getHeaders(),
-        response.getBody(),
+        body,
+        bodyShared,
+        null,
+        bodyFile,
         response.getFault());
   }
 
+  /**
+   * Returns a copy holding its body outside the heap, if the body is larger than the threshold.
+   * The body is then copied back onto the heap each time it's read, until it's released.
+   */
+  public LoggedResponse withBodyOffHeapAbove(int thresholdBytes) {
+    // A shared body isn't held on the heap on the journal's account
+    if (body == null || bodyShared || body.length <= thresholdBytes) {
+      return this;
+    }
+
+    return new LoggedResponse(status, headers, null, false, OffHeapBytes.copyOf(body), null, fault);
+  }
+
+  /** Returns a copy holding its body on the heap, which stays readable after it's released. */
+  public LoggedResponse withBodyOnHeap() {
+    if (offHeapBody == null) {
+      return this;
+    }
+
+    return new LoggedResponse(
+        status, headers, offHeapBody.toByteArray(), false, null, null, fault);
+  }
+
+  /** Frees a body held outside the heap. It can't be read from this response afterwards. */
+  public void releaseOffHeapBody() {
+    if (offHeapBody != null) {
+      offHeapBody.release();
+    }
+  }
+
   public int getStatus() {
     return status;
   }
@@ -72,11 +140,12 @@ public class LoggedResponse {
    */
   @JsonProperty("body")
   public String getBodyAsString() {
-    if (body == null) {
+    byte[] bytes = readBody();
+    if (bytes == null) {
       return "";
     }
 
-    return Strings.stringFromBytes(body, getCharset());
+    return Strings.stringFromBytes(bytes, getCharset());
   }
 
   @JsonIgnore
@@ -93,12 +162,29 @@ public class LoggedResponse {
 
   @JsonIgnore
   public byte[] getBody() {
-    return body;
+    return bodyShared ? body.clone() : readBody();
+  }
+
+  private byte[] readBody() {
+    if (bodyFile != null) {
+      return readBodyFile();
+    }
+
+    return offHeapBody != null ? offHeapBody.toByteArray() : body;
+  }
+
+  private byte[] readBodyFile() {
+    try {
+      return Files.readAllBytes(bodyFile.toPath());
+    } catch (IOException e) {
+      // The file has been removed or become unreadable since it was served
+      return null;
+    }
   }
 
   @JsonProperty("bodyAsBase64")
   public String getBodyAsBase64() {
-    return Encoding.encodeBase64(body);
+    return Encoding.encodeBase64(readBody());
   }
 
   public Fault getFault() {
@@ -21,8 +21,11 @@ import static wiremock.http.HttpHeaders.noHeaders;
 
 import com.google.common.base.Optional;
 import com.google.common.io.ByteStreams;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import wiremock.common.BinaryFile;
+import wiremock.common.CompressedBodies;
 import wiremock.common.InputStreamSource;
 import wiremock.common.StreamSources;
 import wiremock.common.Strings;
@@ -135,6 +138,26 @@ public class Response {
     return bodyStreamSource == null ? null : bodyStreamSource.getStream();
   }
 
+  /**
+   * The local file the body is read from, if any, allowing it to be sent or referred to without
+   * copying it onto the heap.
+   */
+  public Optional<File> getBodyFile() {
+    return bodyStreamSource instanceof BinaryFile
+        ? ((BinaryFile) bodyStreamSource).getLocalFile()
+        : Optional.<File>absent();
+  }
+
+  /**
+   * The body along with its compressed encodings, if the body is one that's served repeatedly and
+   * so is worth compressing once rather than on every request.
+   */
+  public Optional<CompressedBodies> getCompressedBodies() {
+    return bodyStreamSource instanceof CompressedBodies
+        ? Optional.of((CompressedBodies) bodyStreamSource)
+        : Optional.<CompressedBodies>absent();
+  }
+
   public HttpHeaders getHeaders() {
     return headers;
   }
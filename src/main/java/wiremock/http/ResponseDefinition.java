@@ -58,6 +58,7 @@ public class ResponseDefinition {
   private String browserProxyUrl;
   private Boolean wasConfigured = true;
   private Request originalRequest;
+  private StaticResponse staticResponse;
 
   @JsonCreator
   public ResponseDefinition(
@@ -292,6 +293,7 @@ public class ResponseDefinition {
             original.transformers,
             original.transformerParameters,
             original.wasConfigured);
+    newResponseDef.staticResponse = original.staticResponse;
     return newResponseDef;
   }
 
@@ -400,6 +402,19 @@ public class ResponseDefinition {
     this.originalRequest = originalRequest;
   }
 
+  /**
+   * The response rendered in advance when the stub was registered, if this is the copy of a static
+   * definition being served and no transformer applies to it.
+   */
+  @JsonIgnore
+  public StaticResponse getStaticResponse() {
+    return staticResponse;
+  }
+
+  public void setStaticResponse(StaticResponse staticResponse) {
+    this.staticResponse = staticResponse;
+  }
+
   public Fault getFault() {
     return fault;
   }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.http;
+
+import static wiremock.http.HttpHeaders.noHeaders;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import wiremock.common.CompressedBodies;
+
+/**
+ * A response whose status, headers and body can't vary between requests, so it can be rendered
+ * once when its stub is registered and then written as-is for every request the stub serves. Its
+ * compressed encodings are likewise kept once made.
+ */
+public class StaticResponse extends Response {
+
+  private final byte[] body;
+  private final ByteBuffer bodyBuffer;
+  private final List<HttpHeader> allHeaders;
+
+  private StaticResponse(
+      int status, String statusMessage, byte[] body, HttpHeaders headers, long initialDelay) {
+    super(
+        status,
+        statusMessage,
+        new CompressedBodies(body),
+        headers,
+        true,
+        null,
+        initialDelay,
+        null,
+        false);
+    this.body = body;
+    this.bodyBuffer = ByteBuffer.wrap(body).asReadOnlyBuffer();
+    this.allHeaders = ImmutableList.copyOf(headers.all());
+  }
+
+  /**
+   * Renders the response definition, unless it is a proxy or fault response, reads its body from a
+   * file, names any transformers or has a random or dribbled delay.
+   */
+  public static Optional<StaticResponse> renderIfStatic(ResponseDefinition responseDefinition) {
+    if (!responseDefinition.wasConfigured()
+        || responseDefinition.isProxyResponse()
+        || responseDefinition.getFault() != null
+        || responseDefinition.specifiesBodyFile()
+        || (responseDefinition.getTransformers() != null
+            && !responseDefinition.getTransformers().isEmpty())
+        || responseDefinition.getDelayDistribution() != null
+        || responseDefinition.getChunkedDribbleDelay() != null) {
+      return Optional.absent();
+    }
+
+    Integer fixedDelay = responseDefinition.getFixedDelayMilliseconds();
+    return Optional.of(
+        new StaticResponse(
+            responseDefinition.getStatus(),
+            responseDefinition.getStatusMessage(),
+            responseDefinition.specifiesBodyContent()
+                ? responseDefinition.getByteBody()
+                : new byte[0],
+            responseDefinition.getHeaders() == null ? noHeaders() : responseDefinition.getHeaders(),
+            fixedDelay == null ? 0 : fixedDelay));
+  }
+
+  @Override
+  public byte[] getBody() {
+    return body.clone();
+  }
+
+  /** The body itself rather than a copy, for journaling. It must not be modified. */
+  byte[] getSharedBody() {
+    return body;
+  }
+
+  public List<HttpHeader> getAllHeaders() {
+    return allHeaders;
+  }
+
+  public boolean hasBody() {
+    return body.length > 0;
+  }
+
+  /** A read-only view of the body, positioned at its start, that can be written without copying. */
+  public ByteBuffer getBodyBuffer() {
+    return bodyBuffer.duplicate();
+  }
+
+  public void writeBodyTo(OutputStream out) throws IOException {
+    out.write(body);
+  }
+}
@@ -23,6 +23,7 @@ import wiremock.core.StubServer;
 import wiremock.extension.Parameters;
 import wiremock.extension.PostServeAction;
 import wiremock.stubbing.ServeEvent;
+import wiremock.verification.BackgroundRequestJournal;
 import wiremock.verification.RequestJournal;
 
 public class StubRequestHandler extends AbstractRequestHandler {
@@ -55,6 +56,18 @@ public class StubRequestHandler extends AbstractRequestHandler {
     return true;
   }
 
+  @Override
+  protected ServeEvent complete(ServeEvent serveEvent, Response response) {
+    return journalCapturesResponsesInBackground()
+        ? serveEvent.completeLazily(response)
+        : serveEvent.complete(response);
+  }
+
+  private boolean journalCapturesResponsesInBackground() {
+    return requestJournal instanceof BackgroundRequestJournal
+        && ((BackgroundRequestJournal) requestJournal).capturesResponsesInBackground();
+  }
+
   @Override
   protected void beforeResponseSent(ServeEvent serveEvent, Response response) {
     requestJournal.requestReceived(serveEvent);
@@ -19,27 +19,55 @@ import static wiremock.core.WireMockApp.FILES_ROOT;
 import static wiremock.http.Response.response;
 
 import java.util.List;
-import wiremock.common.BinaryFile;
+import wiremock.common.BodyFileCache;
 import wiremock.common.FileSource;
 import wiremock.extension.ResponseTransformer;
+import wiremock.global.GlobalSettings;
 import wiremock.global.GlobalSettingsHolder;
 
 public class StubResponseRenderer implements ResponseRenderer {
 
   private final FileSource fileSource;
+  private final BodyFileCache bodyFileCache;
   private final GlobalSettingsHolder globalSettingsHolder;
   private final ProxyResponseRenderer proxyResponseRenderer;
   private final List<ResponseTransformer> responseTransformers;
+  private final boolean anyTransformerAppliesGlobally;
 
   public StubResponseRenderer(
       FileSource fileSource,
       GlobalSettingsHolder globalSettingsHolder,
       ProxyResponseRenderer proxyResponseRenderer,
       List<ResponseTransformer> responseTransformers) {
+    this(
+        fileSource,
+        BodyFileCache.disabled(fileSource),
+        globalSettingsHolder,
+        proxyResponseRenderer,
+        responseTransformers);
+  }
+
+  public StubResponseRenderer(
+      FileSource fileSource,
+      BodyFileCache bodyFileCache,
+      GlobalSettingsHolder globalSettingsHolder,
+      ProxyResponseRenderer proxyResponseRenderer,
+      List<ResponseTransformer> responseTransformers) {
     this.fileSource = fileSource;
+    this.bodyFileCache = bodyFileCache;
     this.globalSettingsHolder = globalSettingsHolder;
     this.proxyResponseRenderer = proxyResponseRenderer;
     this.responseTransformers = responseTransformers;
+    this.anyTransformerAppliesGlobally = anyAppliesGlobally(responseTransformers);
+  }
+
+  private static boolean anyAppliesGlobally(List<ResponseTransformer> transformers) {
+    for (ResponseTransformer transformer : transformers) {
+      if (transformer.applyGlobally()) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -48,6 +76,11 @@ public class StubResponseRenderer implements ResponseRenderer {
       return Response.notConfigured();
     }
 
+    StaticResponse staticResponse = responseDefinition.getStaticResponse();
+    if (staticResponse != null && canServeStatically()) {
+      return staticResponse;
+    }
+
     Response response = buildResponse(responseDefinition);
     return applyTransformations(
         responseDefinition.getOriginalRequest(),
@@ -56,6 +89,13 @@ public class StubResponseRenderer implements ResponseRenderer {
         responseTransformers);
   }
 
+  private boolean canServeStatically() {
+    GlobalSettings globalSettings = globalSettingsHolder.get();
+    return !anyTransformerAppliesGlobally
+        && globalSettings.getFixedDelay() == null
+        && globalSettings.getDelayDistribution() == null;
+  }
+
   private Response buildResponse(ResponseDefinition responseDefinition) {
     if (responseDefinition.isProxyResponse()) {
       return proxyResponseRenderer.render(responseDefinition);
@@ -103,8 +143,7 @@ public class StubResponseRenderer implements ResponseRenderer {
             .chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay());
 
     if (responseDefinition.specifiesBodyFile()) {
-      BinaryFile bodyFile = fileSource.getBinaryFileNamed(responseDefinition.getBodyFileName());
-      responseBuilder.body(bodyFile);
+      responseBuilder.body(bodyFileCache.getBodyFileNamed(responseDefinition.getBodyFileName()));
     } else if (responseDefinition.specifiesBodyContent()) {
       if (responseDefinition.specifiesBinaryBodyContent()) {
         responseBuilder.body(responseDefinition.getByteBody());
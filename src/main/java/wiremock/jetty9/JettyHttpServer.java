@@ -15,17 +15,19 @@
  */
 package wiremock.jetty9;
 
-import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static wiremock.common.Exceptions.throwUnchecked;
 import static wiremock.core.WireMockApp.ADMIN_CONTEXT_ROOT;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.util.EnumSet;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
 import javax.servlet.DispatcherType;
 import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.jetty.http.MimeTypes;
@@ -57,6 +59,10 @@ public class JettyHttpServer implements HttpServer {
   private final Server jettyServer;
   private final ServerConnector httpConnector;
   private final ServerConnector httpsConnector;
+  private final HashedWheelTimer delayTimer = new HashedWheelTimer("wiremock-response-delays");
+  private ServletContextHandler mockServiceContext;
+  private AsynchronousResponseSettings asynchronousResponseSettings;
+  private ExecutorService asynchronousResponseExecutor;
 
   public JettyHttpServer(
       Options options,
@@ -158,6 +164,8 @@ public class JettyHttpServer implements HttpServer {
 
   @Override
   public void start() {
+    delayTimer.start();
+    startAsynchronousResponseExecutor();
     try {
       jettyServer.start();
     } catch (Exception e) {
@@ -179,6 +187,10 @@ public class JettyHttpServer implements HttpServer {
   @Override
   public void stop() {
     try {
+      // Responses still waiting out their delays are sent straight away rather than dropped, so
+      // that they're written before their connections are closed
+      delayTimer.stop();
+      stopAsynchronousResponseExecutor();
       jettyServer.stop();
       jettyServer.join();
     } catch (Exception e) {
@@ -186,6 +198,36 @@ public class JettyHttpServer implements HttpServer {
     }
   }
 
+  private void startAsynchronousResponseExecutor() {
+    // Without a pool of its own, delayed responses are written by Jetty's threads
+    if (!asynchronousResponseSettings.isEnabled()
+        || asynchronousResponseSettings.getThreads() < 1) {
+      return;
+    }
+
+    // Daemon threads, so a server that's never stopped doesn't keep the JVM running
+    asynchronousResponseExecutor =
+        newFixedThreadPool(
+            asynchronousResponseSettings.getThreads(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("wiremock-async-response-%d")
+                .setDaemon(true)
+                .build());
+    mockServiceContext.setAttribute(
+        WireMockHandlerDispatchingServlet.ASYNCHRONOUS_RESPONSE_EXECUTOR,
+        asynchronousResponseExecutor);
+  }
+
+  private void stopAsynchronousResponseExecutor() throws InterruptedException {
+    if (asynchronousResponseExecutor == null) {
+      return;
+    }
+
+    asynchronousResponseExecutor.shutdown();
+    asynchronousResponseExecutor.awaitTermination(30, SECONDS);
+    asynchronousResponseExecutor = null;
+  }
+
   @Override
   public boolean isRunning() {
     return jettyServer.isRunning();
@@ -293,7 +335,8 @@ public class JettyHttpServer implements HttpServer {
       FileSource fileSource,
       AsynchronousResponseSettings asynchronousResponseSettings,
       Notifier notifier) {
-    ServletContextHandler mockServiceContext = new ServletContextHandler(jettyServer, "/");
+    mockServiceContext = new ServletContextHandler(jettyServer, "/");
+    this.asynchronousResponseSettings = asynchronousResponseSettings;
 
     mockServiceContext.setInitParameter("org.eclipse.jetty.servlet.Default.maxCacheSize", "0");
     mockServiceContext.setInitParameter(
@@ -315,13 +358,8 @@ public class JettyHttpServer implements HttpServer {
     servletHolder.setInitParameter(
         WireMockHandlerDispatchingServlet.SHOULD_FORWARD_TO_FILES_CONTEXT, "true");
 
-    if (asynchronousResponseSettings.isEnabled()) {
-      ScheduledExecutorService scheduledExecutorService =
-          newScheduledThreadPool(asynchronousResponseSettings.getThreads());
-      mockServiceContext.setAttribute(
-          WireMockHandlerDispatchingServlet.ASYNCHRONOUS_RESPONSE_EXECUTOR,
-          scheduledExecutorService);
-    }
+    // The executor is set when the server starts, if enabled, and shut down when it stops
+    mockServiceContext.setAttribute(WireMockHandlerDispatchingServlet.DELAY_TIMER, delayTimer);
 
     MimeTypes mimeTypes = new MimeTypes();
     mimeTypes.addMimeMapping("json", "application/json");
@@ -17,13 +17,21 @@ package wiremock.jetty9;
 
 import static wiremock.common.Exceptions.throwUnchecked;
 
+import com.google.common.base.Optional;
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.Socket;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 import org.eclipse.jetty.io.ssl.SslConnection;
 import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.HttpOutput;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Response;
 
@@ -38,6 +46,64 @@ public class JettyUtils {
     return (Response) httpServletResponse;
   }
 
+  /**
+   * Jetty's own output stream for the response, going around any wrappers such as the gzip
+   * handler's, so content can be handed to {@link #sendContent} without being copied. The wrappers
+   * are told not to compress the response, so this is only for content they'd leave as it is.
+   * Absent if the response isn't one of Jetty's.
+   */
+  public static Optional<ServletOutputStream> getDirectOutput(ServletResponse response)
+      throws IOException {
+    ServletResponse unwrapped = response;
+    while (unwrapped instanceof ServletResponseWrapper) {
+      unwrapped = ((ServletResponseWrapper) unwrapped).getResponse();
+    }
+    if (!(unwrapped instanceof Response)) {
+      return Optional.absent();
+    }
+
+    // Also applies any headers a compressing wrapper is holding back, such as Content-Length
+    for (ServletResponse wrapper = response;
+        wrapper instanceof ServletResponseWrapper;
+        wrapper = ((ServletResponseWrapper) wrapper).getResponse()) {
+      disableCompression(wrapper);
+    }
+
+    return Optional.of(unwrapped.getOutputStream());
+  }
+
+  private static void disableCompression(ServletResponse wrapper) {
+    Method noCompression;
+    try {
+      noCompression = wrapper.getClass().getMethod("noCompression");
+    } catch (NoSuchMethodException e) {
+      return;
+    }
+
+    try {
+      noCompression.invoke(wrapper);
+    } catch (Exception e) {
+      throwUnchecked(e);
+    }
+  }
+
+  /**
+   * Writes the buffer as the whole of the remaining content, to a stream from {@link
+   * #getDirectOutput}.
+   */
+  public static void sendContent(ServletOutputStream out, ByteBuffer content) throws IOException {
+    ((HttpOutput) out).sendContent(content);
+  }
+
+  /**
+   * Writes what's left to read from the channel as the whole of the remaining content, to a stream
+   * from {@link #getDirectOutput}.
+   */
+  public static void sendContent(ServletOutputStream out, ReadableByteChannel content)
+      throws IOException {
+    ((HttpOutput) out).sendContent(content);
+  }
+
   public static Socket getTlsSocket(Response response) {
     HttpChannel httpChannel = response.getHttpOutput().getHttpChannel();
     SslConnection.DecryptedEndPoint sslEndpoint =
@@ -34,6 +34,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import wiremock.common.Json;
+import wiremock.common.ParsedDocumentCache;
 
 public class EqualToJsonPattern extends StringValuePattern {
 
@@ -95,7 +96,7 @@ public class EqualToJsonPattern extends StringValuePattern {
   @Override
   public MatchResult match(String value) {
     try {
-      final JsonNode actual = Json.read(value, JsonNode.class);
+      final JsonNode actual = ParsedDocumentCache.jsonNodeFor(value);
 
       return new MatchResult() {
         @Override
@@ -41,6 +41,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
 import org.xmlunit.XMLUnitException;
 import org.xmlunit.builder.DiffBuilder;
 import org.xmlunit.builder.Input;
@@ -52,6 +53,9 @@ import org.xmlunit.diff.ComparisonType;
 import org.xmlunit.diff.DefaultNodeMatcher;
 import org.xmlunit.diff.Diff;
 import org.xmlunit.diff.DifferenceEvaluator;
+import wiremock.common.InstancePool;
+import wiremock.common.ParsedDocumentCache;
+import wiremock.common.SilentErrorHandler;
 import wiremock.common.Xml;
 
 public class EqualToXmlPattern extends StringValuePattern {
@@ -72,13 +76,25 @@ public class EqualToXmlPattern extends StringValuePattern {
           CHILD_LOOKUP,
           ATTR_NAME_LOOKUP);
 
+  private static final int MAX_IDLE_CONTROL_DOCUMENTS = 4;
+
   private final Document xmlDocument;
+  private final InstancePool<Document> controlDocuments =
+      new InstancePool<>(MAX_IDLE_CONTROL_DOCUMENTS);
 
   public EqualToXmlPattern(@JsonProperty("equalToXml") String expectedValue) {
     super(expectedValue);
     xmlDocument = Xml.read(expectedValue);
   }
 
+  // DOM nodes aren't safe for concurrent reads, so each diff borrows a namespace aware copy
+  private Document borrowControlDocument() throws SAXException {
+    Document controlDocument = controlDocuments.poll();
+    return controlDocument != null
+        ? controlDocument
+        : Xml.parse(expectedValue, true, new SilentErrorHandler());
+  }
+
   public String getEqualToXml() {
     return expectedValue;
   }
@@ -97,29 +113,27 @@ public class EqualToXmlPattern extends StringValuePattern {
           return false;
         }
 
+        Document controlDocument = null;
         try {
+          controlDocument = borrowControlDocument();
           Diff diff =
-              DiffBuilder.compare(Input.from(expectedValue))
-                  .withTest(value)
+              DiffBuilder.compare(Input.fromDocument(controlDocument))
+                  .withTest(Input.fromDocument(ParsedDocumentCache.xmlDocumentFor(value)))
                   .withComparisonController(ComparisonControllers.StopWhenDifferent)
                   .ignoreWhitespace()
                   .ignoreComments()
                   .withDifferenceEvaluator(IGNORE_UNCOUNTED_COMPARISONS)
                   .withNodeMatcher(new OrderInvariantNodeMatcher())
-                  .withDocumentBuilderFactory(Xml.newDocumentBuilderFactory())
                   .build();
 
           return !diff.hasDifferences();
-        } catch (XMLUnitException e) {
-          notifier()
-              .info(
-                  "Failed to process XML. "
-                      + e.getMessage()
-                      + "\nExpected:\n"
-                      + expectedValue
-                      + "\n\nActual:\n"
-                      + value);
+        } catch (XMLUnitException | SAXException e) {
+          logFailure(e, value);
           return false;
+        } finally {
+          if (controlDocument != null) {
+            controlDocuments.offer(controlDocument);
+          }
         }
       }
 
@@ -132,11 +146,12 @@ public class EqualToXmlPattern extends StringValuePattern {
         final AtomicInteger totalComparisons = new AtomicInteger(0);
         final AtomicInteger differences = new AtomicInteger(0);
 
-        Diff diff = null;
+        Document controlDocument = null;
         try {
-          diff =
-              DiffBuilder.compare(Input.from(expectedValue))
-                  .withTest(value)
+          controlDocument = borrowControlDocument();
+          Diff diff =
+              DiffBuilder.compare(Input.fromDocument(controlDocument))
+                  .withTest(Input.fromDocument(ParsedDocumentCache.xmlDocumentFor(value)))
                   .ignoreWhitespace()
                   .ignoreComments()
                   .withDifferenceEvaluator(IGNORE_UNCOUNTED_COMPARISONS)
@@ -154,27 +169,35 @@ public class EqualToXmlPattern extends StringValuePattern {
                           }
                         }
                       })
-                  .withDocumentBuilderFactory(Xml.newDocumentBuilderFactory())
                   .build();
-        } catch (XMLUnitException e) {
-          notifier()
-              .info(
-                  "Failed to process XML. "
-                      + e.getMessage()
-                      + "\nExpected:\n"
-                      + expectedValue
-                      + "\n\nActual:\n"
-                      + value);
+
+          // Differences refer to the control document's nodes, so render them before handing it back
+          notifier().info(Joiner.on("\n").join(diff.getDifferences()));
+        } catch (XMLUnitException | SAXException e) {
+          logFailure(e, value);
           return 1.0;
+        } finally {
+          if (controlDocument != null) {
+            controlDocuments.offer(controlDocument);
+          }
         }
 
-        notifier().info(Joiner.on("\n").join(diff.getDifferences()));
-
         return differences.doubleValue() / totalComparisons.doubleValue();
       }
     };
   }
 
+  private void logFailure(Exception e, String value) {
+    notifier()
+        .info(
+            "Failed to process XML. "
+                + e.getMessage()
+                + "\nExpected:\n"
+                + expectedValue
+                + "\n\nActual:\n"
+                + value);
+  }
+
   private static final DifferenceEvaluator IGNORE_UNCOUNTED_COMPARISONS =
       new DifferenceEvaluator() {
         @Override
@@ -83,6 +83,27 @@ public abstract class MatchResult implements Comparable<MatchResult> {
 
         return (totalDistance / sizeWithWeighting);
       }
+
+      @Override
+      public double getDistanceUpTo(double limit) {
+        double sizeWithWeighting = 0;
+        for (WeightedMatchResult matchResult : matchResults) {
+          sizeWithWeighting += matchResult.getWeighting();
+        }
+
+        // Distances are never negative, so once the total so far is over the limit the rest
+        // can be skipped
+        double totalDistance = 0;
+        for (WeightedMatchResult matchResult : matchResults) {
+          double remaining = limit * sizeWithWeighting - totalDistance;
+          totalDistance += matchResult.getDistanceUpTo(remaining);
+          if (totalDistance / sizeWithWeighting > limit) {
+            break;
+          }
+        }
+
+        return (totalDistance / sizeWithWeighting);
+      }
     };
   }
 
@@ -91,6 +112,14 @@ public abstract class MatchResult implements Comparable<MatchResult> {
 
   public abstract double getDistance();
 
+  /**
+   * Returns the distance if it is no greater than the limit. Otherwise returns some value greater
+   * than the limit, which may have been found without working out the whole distance.
+   */
+  public double getDistanceUpTo(double limit) {
+    return getDistance();
+  }
+
   @Override
   public int compareTo(MatchResult other) {
     return Double.compare(other.getDistance(), getDistance());
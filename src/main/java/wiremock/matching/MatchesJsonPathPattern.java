@@ -19,18 +19,24 @@ import static wiremock.common.LocalNotifier.notifier;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import java.util.Collection;
 import java.util.Map;
 import wiremock.common.Json;
+import wiremock.common.ParsedDocumentCache;
 
 @JsonSerialize(using = JsonPathPatternJsonSerializer.class)
 public class MatchesJsonPathPattern extends PathPattern {
 
+  private final JsonPath compiledJsonPath;
+
   public MatchesJsonPathPattern(
       @JsonProperty("matchesJsonPath") String expectedJsonPath, StringValuePattern valuePattern) {
     super(expectedJsonPath, valuePattern);
+    compiledJsonPath = compileOrNull(expectedJsonPath);
   }
 
   public MatchesJsonPathPattern(String value) {
@@ -43,7 +49,7 @@ public class MatchesJsonPathPattern extends PathPattern {
 
   protected MatchResult isSimpleJsonPathMatch(String value) {
     try {
-      Object obj = JsonPath.read(value, expectedValue);
+      Object obj = read(value);
 
       boolean result;
       if (obj instanceof Collection) {
@@ -78,7 +84,7 @@ public class MatchesJsonPathPattern extends PathPattern {
   protected MatchResult isAdvancedJsonPathMatch(String value) {
     Object obj = null;
     try {
-      obj = JsonPath.read(value, expectedValue);
+      obj = read(value);
     } catch (PathNotFoundException pnfe) {
     } catch (Exception e) {
       String error;
@@ -107,4 +113,20 @@ public class MatchesJsonPathPattern extends PathPattern {
 
     return valuePattern.match(value);
   }
+
+  private Object read(String json) {
+    DocumentContext document = ParsedDocumentCache.jsonPathDocumentFor(json);
+    // Invalid expressions are evaluated as strings so they fail with JsonPath's own message
+    return compiledJsonPath != null
+        ? document.read(compiledJsonPath)
+        : document.read(expectedValue);
+  }
+
+  private static JsonPath compileOrNull(String expression) {
+    try {
+      return JsonPath.compile(expression);
+    } catch (InvalidPathException | IllegalArgumentException e) {
+      return null;
+    }
+  }
 }
@@ -17,35 +17,37 @@ package wiremock.matching;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.collect.Sets.newTreeSet;
-import static wiremock.common.Exceptions.throwUnchecked;
+import static javax.xml.xpath.XPathConstants.NODESET;
 import static wiremock.common.LocalNotifier.notifier;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.collect.ImmutableMap;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.Collections;
 import java.util.Map;
 import java.util.SortedSet;
-import javax.xml.parsers.DocumentBuilder;
-import org.custommonkey.xmlunit.NamespaceContext;
-import org.custommonkey.xmlunit.SimpleNamespaceContext;
-import org.custommonkey.xmlunit.XMLUnit;
-import org.custommonkey.xmlunit.XpathEngine;
-import org.custommonkey.xmlunit.exceptions.XpathException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
-import wiremock.common.SilentErrorHandler;
+import org.xmlunit.util.Convert;
+import wiremock.common.InstancePool;
+import wiremock.common.ParsedDocumentCache;
 import wiremock.common.Xml;
 
 @JsonSerialize(using = XPathPatternJsonSerializer.class)
 public class MatchesXPathPattern extends PathPattern {
 
+  private static final int MAX_IDLE_COMPILED_XPATHS = 4;
+
   private final Map<String, String> xpathNamespaces;
+  private final InstancePool<XPathExpression> compiledXPaths =
+      new InstancePool<>(MAX_IDLE_COMPILED_XPATHS);
 
   public MatchesXPathPattern(String xpath) {
     this(xpath, null, null);
@@ -118,16 +120,11 @@ public class MatchesXPathPattern extends PathPattern {
   }
 
   private NodeList findXmlNodesMatching(String value) {
+    XPathExpression compiledXPath = null;
     try {
-      DocumentBuilder documentBuilder = Xml.newDocumentBuilderFactory().newDocumentBuilder();
-      documentBuilder.setErrorHandler(new SilentErrorHandler());
-      Document inDocument = XMLUnit.buildDocument(documentBuilder, new StringReader(value));
-      XpathEngine simpleXpathEngine = XMLUnit.newXpathEngine();
-      if (xpathNamespaces != null) {
-        NamespaceContext namespaceContext = new SimpleNamespaceContext(xpathNamespaces);
-        simpleXpathEngine.setNamespaceContext(namespaceContext);
-      }
-      return simpleXpathEngine.getMatchingNodes(expectedValue, inDocument);
+      Document inDocument = ParsedDocumentCache.xmlDocumentFor(value);
+      compiledXPath = borrowCompiledXPath();
+      return (NodeList) compiledXPath.evaluate(inDocument, NODESET);
     } catch (SAXException e) {
       notifier()
           .info(
@@ -135,14 +132,27 @@ public class MatchesXPathPattern extends PathPattern {
                   "Warning: failed to parse the XML document. Reason: %s\nXML: %s",
                   e.getMessage(), value));
       return null;
-    } catch (IOException e) {
-      notifier().info(e.getMessage());
-      return null;
-    } catch (XpathException e) {
+    } catch (XPathExpressionException e) {
       notifier().info("Warning: failed to evaluate the XPath expression " + expectedValue);
       return null;
-    } catch (Exception e) {
-      return throwUnchecked(e, NodeList.class);
+    } finally {
+      if (compiledXPath != null) {
+        compiledXPaths.offer(compiledXPath);
+      }
+    }
+  }
+
+  // XPathExpression isn't thread safe, so each evaluation borrows its own compiled copy
+  private XPathExpression borrowCompiledXPath() throws XPathExpressionException {
+    XPathExpression expression = compiledXPaths.poll();
+    if (expression != null) {
+      return expression;
+    }
+
+    XPath xpath = XPathFactory.newInstance().newXPath();
+    if (xpathNamespaces != null) {
+      xpath.setNamespaceContext(Convert.toNamespaceContext(xpathNamespaces));
     }
+    return xpath.compile(expectedValue);
   }
 }
@@ -15,15 +15,71 @@
  */
 package wiremock.matching;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class RegexPattern extends AbstractRegexPattern {
 
+  private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+  private static final String QUANTIFIERS = "?*+{";
+
+  private final String literalPrefix;
+
   public RegexPattern(@JsonProperty("matches") String regex) {
     super(regex);
+    literalPrefix = findLiteralPrefix(regex);
   }
 
   public String getMatches() {
     return expectedValue;
   }
+
+  /**
+   * The leading part of the regex that any matching value must start with, or an empty string if
+   * no such prefix can be determined.
+   */
+  @JsonIgnore
+  public String getLiteralPrefix() {
+    return literalPrefix;
+  }
+
+  private static String findLiteralPrefix(String regex) {
+    if (hasTopLevelAlternation(regex)) {
+      return "";
+    }
+
+    int end = 0;
+    while (end < regex.length() && METACHARACTERS.indexOf(regex.charAt(end)) == -1) {
+      end++;
+    }
+
+    if (end < regex.length() && end > 0 && QUANTIFIERS.indexOf(regex.charAt(end)) != -1) {
+      end--;
+    }
+
+    return regex.substring(0, end);
+  }
+
+  private static boolean hasTopLevelAlternation(String regex) {
+    int depth = 0;
+    boolean inCharacterClass = false;
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (inCharacterClass) {
+        inCharacterClass = c != ']';
+      } else if (c == '[') {
+        inCharacterClass = true;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == '|' && depth == 0) {
+        return true;
+      }
+    }
+
+    return false;
+  }
 }
@@ -40,6 +40,7 @@ import wiremock.common.Json;
 import wiremock.http.Cookie;
 import wiremock.http.Request;
 import wiremock.http.RequestMethod;
+import wiremock.verification.LoggedRequest;
 
 public class RequestPattern implements NamedValueMatcher<Request> {
 
@@ -162,31 +163,8 @@ public class RequestPattern implements NamedValueMatcher<Request> {
           from(cookies.entrySet())
               .transform(
                   new Function<Map.Entry<String, StringValuePattern>, MatchResult>() {
-                    public MatchResult apply(
-                        final Map.Entry<String, StringValuePattern> cookiePattern) {
-                      Cookie cookie = request.getCookies().get(cookiePattern.getKey());
-                      if (cookie == null) {
-                        return cookiePattern.getValue().nullSafeIsAbsent()
-                            ? MatchResult.exactMatch()
-                            : MatchResult.noMatch();
-                      }
-
-                      return from(cookie.getValues())
-                          .transform(
-                              new Function<String, MatchResult>() {
-                                @Override
-                                public MatchResult apply(String cookieValue) {
-                                  return cookiePattern.getValue().match(cookieValue);
-                                }
-                              })
-                          .toSortedList(
-                              new Comparator<MatchResult>() {
-                                @Override
-                                public int compare(MatchResult o1, MatchResult o2) {
-                                  return o2.compareTo(o1);
-                                }
-                              })
-                          .get(0);
+                    public MatchResult apply(Map.Entry<String, StringValuePattern> cookiePattern) {
+                      return cookieMatchResult(request, cookiePattern);
                     }
                   })
               .toList());
@@ -195,6 +173,33 @@ public class RequestPattern implements NamedValueMatcher<Request> {
     return MatchResult.exactMatch();
   }
 
+  private static MatchResult cookieMatchResult(
+      Request request, final Map.Entry<String, StringValuePattern> cookiePattern) {
+    Cookie cookie = request.getCookies().get(cookiePattern.getKey());
+    if (cookie == null) {
+      return cookiePattern.getValue().nullSafeIsAbsent()
+          ? MatchResult.exactMatch()
+          : MatchResult.noMatch();
+    }
+
+    return from(cookie.getValues())
+        .transform(
+            new Function<String, MatchResult>() {
+              @Override
+              public MatchResult apply(String cookieValue) {
+                return cookiePattern.getValue().match(cookieValue);
+              }
+            })
+        .toSortedList(
+            new Comparator<MatchResult>() {
+              @Override
+              public int compare(MatchResult o1, MatchResult o2) {
+                return o2.compareTo(o1);
+              }
+            })
+        .get(0);
+  }
+
   private MatchResult allHeadersMatchResult(final Request request) {
     Map<String, MultiValuePattern> combinedHeaders = combineBasicAuthAndOtherHeaders();
 
@@ -247,20 +252,15 @@ public class RequestPattern implements NamedValueMatcher<Request> {
     return MatchResult.exactMatch();
   }
 
-  @SuppressWarnings("unchecked")
   private MatchResult allBodyPatternsMatch(final Request request) {
-    if (bodyPatterns != null && !bodyPatterns.isEmpty() && request.getBody() != null) {
+    if (bodyPatterns != null && !bodyPatterns.isEmpty() && hasBody(request)) {
       return MatchResult.aggregate(
           from(bodyPatterns)
               .transform(
-                  new Function<ContentPattern, MatchResult>() {
+                  new Function<ContentPattern<?>, MatchResult>() {
                     @Override
-                    public MatchResult apply(ContentPattern pattern) {
-                      if (StringValuePattern.class.isAssignableFrom(pattern.getClass())) {
-                        return pattern.match(request.getBodyAsString());
-                      }
-
-                      return ((BinaryEqualToPattern) pattern).match(request.getBody());
+                    public MatchResult apply(ContentPattern<?> pattern) {
+                      return bodyMatchResult(request, pattern);
                     }
                   })
               .toList());
@@ -269,7 +269,21 @@ public class RequestPattern implements NamedValueMatcher<Request> {
     return MatchResult.exactMatch();
   }
 
-  @SuppressWarnings("unchecked")
+  /** Journalled requests can say whether they have a body without copying it off the heap. */
+  private static boolean hasBody(Request request) {
+    return request instanceof LoggedRequest
+        ? ((LoggedRequest) request).hasBody()
+        : request.getBody() != null;
+  }
+
+  private static MatchResult bodyMatchResult(Request request, ContentPattern<?> pattern) {
+    if (StringValuePattern.class.isAssignableFrom(pattern.getClass())) {
+      return ((StringValuePattern) pattern).match(request.getBodyAsString());
+    }
+
+    return ((BinaryEqualToPattern) pattern).match(request.getBody());
+  }
+
   private MatchResult allMultipartPatternsMatch(final Request request) {
     if (multipartPatterns != null && !multipartPatterns.isEmpty()) {
       if (!request.isMultipart()) {
@@ -289,8 +303,90 @@ public class RequestPattern implements NamedValueMatcher<Request> {
     return MatchResult.exactMatch();
   }
 
+  /**
+   * Equivalent to {@code match(request, customMatchers).isExactMatch()}, but checks the cheapest
+   * criteria first and stops at the first one that fails, without building a weighted result.
+   */
   public boolean isMatchedBy(Request request, Map<String, RequestMatcherExtension> customMatchers) {
-    return match(request, customMatchers).isExactMatch();
+    if (customMatcherDefinition != null || hasCustomMatcher()) {
+      return match(request, customMatchers).isExactMatch();
+    }
+
+    return method.match(request.getMethod()).isExactMatch()
+        && url.match(request.getUrl()).isExactMatch()
+        && allHeadersAreExactMatch(request)
+        && allQueryParamsAreExactMatch(request)
+        && allCookiesAreExactMatch(request)
+        && allBodyPatternsAreExactMatch(request)
+        && allMultipartPatternsAreExactMatch(request);
+  }
+
+  private boolean allHeadersAreExactMatch(Request request) {
+    Map<String, MultiValuePattern> combinedHeaders = combineBasicAuthAndOtherHeaders();
+    if (combinedHeaders != null) {
+      for (Map.Entry<String, MultiValuePattern> headerPattern : combinedHeaders.entrySet()) {
+        MultiValuePattern pattern = headerPattern.getValue();
+        if (!pattern.match(request.header(headerPattern.getKey())).isExactMatch()) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private boolean allQueryParamsAreExactMatch(Request request) {
+    if (queryParams != null) {
+      for (Map.Entry<String, MultiValuePattern> queryParamPattern : queryParams.entrySet()) {
+        if (!queryParamPattern
+            .getValue()
+            .match(request.queryParameter(queryParamPattern.getKey()))
+            .isExactMatch()) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private boolean allCookiesAreExactMatch(Request request) {
+    if (cookies != null) {
+      for (Map.Entry<String, StringValuePattern> cookiePattern : cookies.entrySet()) {
+        if (!cookieMatchResult(request, cookiePattern).isExactMatch()) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private boolean allBodyPatternsAreExactMatch(Request request) {
+    if (bodyPatterns != null && hasBody(request)) {
+      for (ContentPattern<?> pattern : bodyPatterns) {
+        if (!bodyMatchResult(request, pattern).isExactMatch()) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private boolean allMultipartPatternsAreExactMatch(Request request) {
+    if (multipartPatterns != null && !multipartPatterns.isEmpty()) {
+      if (!request.isMultipart()) {
+        return false;
+      }
+      for (MultipartValuePattern pattern : multipartPatterns) {
+        if (!pattern.match(request).isExactMatch()) {
+          return false;
+        }
+      }
+    }
+
+    return true;
   }
 
   public String getUrl() {
@@ -415,7 +511,8 @@ public class RequestPattern implements NamedValueMatcher<Request> {
     return new Predicate<Request>() {
       @Override
       public boolean apply(Request request) {
-        return pattern.match(request).isExactMatch();
+        return pattern.isMatchedBy(
+            request, Collections.<String, RequestMatcherExtension>emptyMap());
       }
     };
   }
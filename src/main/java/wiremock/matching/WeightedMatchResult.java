@@ -45,6 +45,10 @@ public class WeightedMatchResult {
     return weighting * matchResult.getDistance();
   }
 
+  public double getDistanceUpTo(double limit) {
+    return weighting * matchResult.getDistanceUpTo(limit / weighting);
+  }
+
   public double getWeighting() {
     return weighting;
   }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.servlet;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static wiremock.common.CompressedBodies.DEFLATE;
+import static wiremock.common.CompressedBodies.GZIP;
+
+/**
+ * Picks the content coding to send from an {@code Accept-Encoding} request header, out of gzip and
+ * deflate. Gzip wins when the client accepts both equally.
+ */
+class AcceptEncoding {
+
+  private AcceptEncoding() {}
+
+  /** Returns gzip or deflate, or null if the client accepts neither. */
+  static String preferredEncoding(String header) {
+    if (isNullOrEmpty(header)) {
+      return null;
+    }
+
+    float gzipQuality = -1;
+    float deflateQuality = -1;
+    float wildcardQuality = -1;
+
+    for (String element : header.split(",")) {
+      String[] parts = element.split(";");
+      String coding = parts[0].trim();
+      float quality = qualityOf(parts);
+
+      if (coding.equalsIgnoreCase(GZIP) || coding.equalsIgnoreCase("x-gzip")) {
+        gzipQuality = Math.max(gzipQuality, quality);
+      } else if (coding.equalsIgnoreCase(DEFLATE)) {
+        deflateQuality = Math.max(deflateQuality, quality);
+      } else if (coding.equals("*")) {
+        wildcardQuality = Math.max(wildcardQuality, quality);
+      }
+    }
+
+    gzipQuality = gzipQuality < 0 ? wildcardQuality : gzipQuality;
+    deflateQuality = deflateQuality < 0 ? wildcardQuality : deflateQuality;
+
+    if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+      return GZIP;
+    } else if (deflateQuality > 0) {
+      return DEFLATE;
+    }
+
+    return null;
+  }
+
+  private static float qualityOf(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+        try {
+          return Float.parseFloat(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+
+    return 1;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.servlet;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * A single range from a {@code Range: bytes=...} request header, resolved against the length of
+ * the body being served. Multiple ranges aren't supported, so requests for them get the whole body.
+ */
+class ByteRange {
+
+  static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+  private static final String BYTES_UNIT = "bytes=";
+
+  private final long start;
+  private final long end;
+
+  private ByteRange(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the range requested by the header, {@link #UNSATISFIABLE} if none of it lies within the
+   * body, or null if the header should be ignored.
+   */
+  static ByteRange parse(String header, long length) {
+    if (isNullOrEmpty(header)
+        || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+      return null;
+    }
+
+    String spec = header.substring(BYTES_UNIT.length()).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0 || spec.indexOf(',') >= 0) {
+      return null;
+    }
+
+    try {
+      String first = spec.substring(0, dash).trim();
+      String last = spec.substring(dash + 1).trim();
+
+      if (first.isEmpty()) {
+        long suffixLength = parseNonNegative(last);
+        if (suffixLength == 0 || length == 0) {
+          return UNSATISFIABLE;
+        }
+        return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+      }
+
+      long start = parseNonNegative(first);
+      long end = last.isEmpty() ? Long.MAX_VALUE : parseNonNegative(last);
+      if (end < start) {
+        return null;
+      }
+      if (start >= length) {
+        return UNSATISFIABLE;
+      }
+      return new ByteRange(start, Math.min(end, length - 1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static long parseNonNegative(String value) {
+    long number = Long.parseLong(value);
+    if (number < 0) {
+      throw new NumberFormatException(value);
+    }
+    return number;
+  }
+
+  long start() {
+    return start;
+  }
+
+  long length() {
+    return end - start + 1;
+  }
+
+  String toContentRange(long totalLength) {
+    return "bytes " + start + "-" + end + "/" + totalLength;
+  }
+}
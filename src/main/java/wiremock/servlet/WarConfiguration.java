@@ -33,6 +33,7 @@ import wiremock.security.Authenticator;
 import wiremock.security.NoAuthenticator;
 import wiremock.standalone.JsonFileMappingsSource;
 import wiremock.standalone.MappingsLoader;
+import wiremock.stubbing.StubMatchingStrategy;
 import wiremock.verification.notmatched.NotMatchedRenderer;
 import wiremock.verification.notmatched.PlainTextStubNotMatchedRenderer;
 
@@ -41,6 +42,7 @@ public class WarConfiguration implements Options {
   private static final String FILE_SOURCE_ROOT_KEY = "WireMockFileSourceRoot";
 
   private final ServletContext servletContext;
+  private BodyFileCache bodyFileCache;
 
   public WarConfiguration(ServletContext servletContext) {
     this.servletContext = servletContext;
@@ -84,7 +86,11 @@ public class WarConfiguration implements Options {
 
   @Override
   public MappingsLoader mappingsLoader() {
-    return new JsonFileMappingsSource(filesRoot().child("mappings"));
+    return new JsonFileMappingsSource(
+        filesRoot().child("mappings"),
+        Runtime.getRuntime().availableProcessors(),
+        notifier(),
+        bodyFileCache());
   }
 
   @Override
@@ -111,6 +117,25 @@ public class WarConfiguration implements Options {
     return Optional.of(Integer.parseInt(str));
   }
 
+  @Override
+  public PersistentJournalSettings getPersistentJournalSettings() {
+    return PersistentJournalSettings.DISABLED;
+  }
+
+  @Override
+  public AsynchronousJournalSettings getAsynchronousJournalSettings() {
+    return AsynchronousJournalSettings.DISABLED;
+  }
+
+  @Override
+  public Optional<Integer> requestJournalOffHeapBodyThreshold() {
+    String str = servletContext.getInitParameter("requestJournalOffHeapBodyThreshold");
+    if (str == null) {
+      return Optional.absent();
+    }
+    return Optional.of(Integer.parseInt(str));
+  }
+
   @Override
   public String bindAddress() {
     return null;
@@ -170,4 +195,35 @@ public class WarConfiguration implements Options {
   public AsynchronousResponseSettings getAsynchronousResponseSettings() {
     return new AsynchronousResponseSettings(false, 0);
   }
+
+  @Override
+  public StubMatchingStrategy getStubMatchingStrategy() {
+    return StubMatchingStrategy.DEFAULT;
+  }
+  @Override
+  public Optional<Integer> parallelStubMatchingThreshold() {
+    String str = servletContext.getInitParameter("parallelStubMatchingThreshold");
+    if (str == null) {
+      return Optional.absent();
+    }
+    return Optional.of(Integer.parseInt(str));
+  }
+  @Override
+  public BodyFileCache bodyFileCache() {
+    if (bodyFileCache == null) {
+      bodyFileCache = new BodyFileCache(filesRoot().child("__files"), bodyFileCacheBudgetBytes());
+    }
+
+    return bodyFileCache;
+  }
+
+  private long bodyFileCacheBudgetBytes() {
+    String str = servletContext.getInitParameter("bodyFileCacheBudget");
+    if (str == null) {
+      return BodyFileCache.DEFAULT_BUDGET_BYTES;
+    }
+    return Long.parseLong(str);
+  }
+
+
 }
@@ -16,26 +16,49 @@
 package wiremock.servlet;
 
 import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.ACCEPT_RANGES;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.CONTENT_RANGE;
+import static com.google.common.net.HttpHeaders.IF_RANGE;
+import static com.google.common.net.HttpHeaders.RANGE;
+import static com.google.common.net.HttpHeaders.VARY;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_PARTIAL;
 import static java.net.URLDecoder.decode;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static wiremock.common.Exceptions.throwUnchecked;
 import static wiremock.http.RequestMethod.GET;
 import static wiremock.servlet.WireMockHttpServletRequestAdapter.ORIGINAL_REQUEST_KEY;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.ScheduledExecutorService;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import javax.servlet.*;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import wiremock.common.CompressedBodies;
+import wiremock.common.HashedWheelTimer;
 import wiremock.common.LocalNotifier;
 import wiremock.common.Notifier;
 import wiremock.core.FaultInjector;
 import wiremock.core.WireMockApp;
 import wiremock.http.*;
+import wiremock.jetty9.JettyUtils;
 import wiremock.verification.LoggedRequest;
 
 public class WireMockHandlerDispatchingServlet extends HttpServlet {
@@ -43,11 +66,30 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
   public static final String SHOULD_FORWARD_TO_FILES_CONTEXT = "shouldForwardToFilesContext";
   public static final String ASYNCHRONOUS_RESPONSE_EXECUTOR =
       WireMockHandlerDispatchingServlet.class.getSimpleName() + ".asynchronousResponseExecutor";
+  public static final String DELAY_TIMER =
+      WireMockHandlerDispatchingServlet.class.getSimpleName() + ".delayTimer";
   public static final String MAPPED_UNDER_KEY = "mappedUnder";
 
   private static final long serialVersionUID = -6602042274260495538L;
 
-  private ScheduledExecutorService scheduledExecutorService;
+  private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+  private static final boolean JETTY_PRESENT = isJettyPresent();
+  private static final Set<String> UNCOMPRESSIBLE_MIME_TYPES =
+      ImmutableSet.of(
+          "application/compress",
+          "application/zip",
+          "application/gzip",
+          "application/bzip2",
+          "application/x-rar-compressed");
+
+  private static final Runnable NOTHING =
+      new Runnable() {
+        @Override
+        public void run() {}
+      };
+
+  private HashedWheelTimer delayTimer;
+  private Executor asynchronousResponseExecutor;
 
   private RequestHandler requestHandler;
   private FaultInjectorFactory faultHandlerFactory;
@@ -65,9 +107,8 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
       wiremockFileSourceRoot = context.getInitParameter("WireMockFileSourceRoot");
     }
 
-    scheduledExecutorService =
-        (ScheduledExecutorService)
-            config.getServletContext().getAttribute(ASYNCHRONOUS_RESPONSE_EXECUTOR);
+    delayTimer = (HashedWheelTimer) context.getAttribute(DELAY_TIMER);
+    asynchronousResponseExecutor = (Executor) context.getAttribute(ASYNCHRONOUS_RESPONSE_EXECUTOR);
 
     String handlerClassName = config.getInitParameter(RequestHandler.HANDLER_CLASS_KEY);
     String faultInjectorFactoryClassName =
@@ -131,17 +172,25 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
     }
 
     @Override
-    public void respond(final Request request, final Response response) {
+    public void respond(Request request, Response response) {
+      respond(request, response, NOTHING);
+    }
+
+    @Override
+    public void respond(
+        final Request request, final Response response, final Runnable afterResponseSent) {
       if (Thread.currentThread().isInterrupted()) {
+        afterResponseSent.run();
         return;
       }
 
       httpServletRequest.setAttribute(ORIGINAL_REQUEST_KEY, LoggedRequest.createFrom(request));
 
       if (isAsyncSupported(response, httpServletRequest)) {
-        respondAsync(request, response);
+        respondAsync(request, response, afterResponseSent);
       } else {
         respondSync(request, response);
+        afterResponseSent.run();
       }
     }
 
@@ -159,22 +208,54 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
     }
 
     private boolean isAsyncSupported(Response response, HttpServletRequest httpServletRequest) {
-      return scheduledExecutorService != null
+      return delayTimer != null
           && response.getInitialDelay() > 0
           && httpServletRequest.isAsyncSupported();
     }
 
-    private void respondAsync(final Request request, final Response response) {
+    /**
+     * Releases the container thread for the length of the delay. When the delay is up the response
+     * is written by the asynchronous response executor if one is configured, otherwise by one of
+     * the container's own threads, and only then are the post-response steps run.
+     */
+    private void respondAsync(
+        final Request request, final Response response, final Runnable afterResponseSent) {
       final AsyncContext asyncContext = httpServletRequest.startAsync();
-      scheduledExecutorService.schedule(
+      asyncContext.setTimeout(0);
+      final Runnable respond =
           new Runnable() {
             @Override
             public void run() {
+              LocalNotifier.set(notifier);
               try {
                 respondTo(request, response);
               } finally {
                 asyncContext.complete();
               }
+              afterResponseSent.run();
+            }
+          };
+
+      delayTimer.schedule(
+          new Runnable() {
+            @Override
+            public void run() {
+              // Stopping, in which case the response is sent before the connection is closed
+              if (!delayTimer.isRunning()) {
+                respond.run();
+                return;
+              }
+
+              if (asynchronousResponseExecutor == null) {
+                asyncContext.start(respond);
+                return;
+              }
+
+              try {
+                asynchronousResponseExecutor.execute(respond);
+              } catch (RejectedExecutionException e) {
+                respond.run();
+              }
             }
           },
           response.getInitialDelay(),
@@ -214,6 +295,11 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
       httpServletResponse.setStatus(response.getStatus(), response.getStatusMessage());
     }
 
+    if (response instanceof StaticResponse) {
+      applyStaticResponse((StaticResponse) response, httpServletRequest, httpServletResponse);
+      return;
+    }
+
     for (HttpHeader header : response.getHeaders().all()) {
       for (String value : header.values()) {
         httpServletResponse.addHeader(header.key(), value);
@@ -223,11 +309,150 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
     if (response.shouldAddChunkedDribbleDelay()) {
       writeAndTranslateExceptionsWithChunkedDribbleDelay(
           httpServletResponse, response.getBodyStream(), response.getChunkedDribbleDelay());
+    } else if (writeCompressedBody(response, httpServletRequest, httpServletResponse)) {
+      return;
+    } else if (response.getBodyFile().isPresent()) {
+      writeFileAndTranslateExceptions(
+          response, httpServletRequest, httpServletResponse, response.getBodyFile().get());
+    } else if (response.getCompressedBodies().isPresent()) {
+      writeBytesAndTranslateExceptions(
+          response,
+          httpServletRequest,
+          httpServletResponse,
+          response.getCompressedBodies().get().getBody());
     } else {
       writeAndTranslateExceptions(httpServletResponse, response.getBodyStream());
     }
   }
 
+  private static void applyStaticResponse(
+      StaticResponse response,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse) {
+    for (HttpHeader header : response.getAllHeaders()) {
+      for (String value : header.values()) {
+        httpServletResponse.addHeader(header.key(), value);
+      }
+    }
+
+    if (writeCompressedBody(response, httpServletRequest, httpServletResponse)) {
+      return;
+    }
+
+    try {
+      Optional<ServletOutputStream> directOutput =
+          directOutput(response, httpServletRequest, httpServletResponse);
+      try (ServletOutputStream out =
+          directOutput.isPresent() ? directOutput.get() : httpServletResponse.getOutputStream()) {
+        if (!response.hasBody()) {
+          return;
+        }
+
+        if (directOutput.isPresent()) {
+          JettyUtils.sendContent(out, response.getBodyBuffer());
+        } else {
+          response.writeBodyTo(out);
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      throwUnchecked(e);
+    }
+  }
+
+  /**
+   * Writes the body in the encoding the client prefers, where the response keeps compressed
+   * encodings of its body, so that it isn't compressed again on every request. Returns false if the
+   * body is still to be written, in which case Jetty's gzip handler may compress it as before.
+   */
+  private static boolean writeCompressedBody(
+      Response response,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse) {
+    Optional<CompressedBodies> compressedBodies = response.getCompressedBodies();
+    if (!compressedBodies.isPresent()
+        || !compressedBodies.get().isWorthCompressing()
+        || !canCompress(response, httpServletRequest)) {
+      return false;
+    }
+
+    httpServletResponse.addHeader(VARY, ACCEPT_ENCODING);
+    String encoding =
+        AcceptEncoding.preferredEncoding(httpServletRequest.getHeader(ACCEPT_ENCODING));
+    Optional<byte[]> encodedBody =
+        encoding == null
+            ? Optional.<byte[]>absent()
+            : compressedBodies.get().encodedAs(encoding);
+    if (!encodedBody.isPresent()) {
+      return false;
+    }
+
+    // Setting the encoding also stops Jetty's gzip handler from compressing the body again
+    httpServletResponse.setHeader(CONTENT_ENCODING, encoding);
+    httpServletResponse.setHeader(CONTENT_LENGTH, String.valueOf(encodedBody.get().length));
+    try {
+      Optional<ServletOutputStream> directOutput =
+          JETTY_PRESENT
+              ? JettyUtils.getDirectOutput(httpServletResponse)
+              : Optional.<ServletOutputStream>absent();
+      try (ServletOutputStream out =
+          directOutput.isPresent() ? directOutput.get() : httpServletResponse.getOutputStream()) {
+        if (directOutput.isPresent()) {
+          JettyUtils.sendContent(out, ByteBuffer.wrap(encodedBody.get()).asReadOnlyBuffer());
+        } else {
+          out.write(encodedBody.get());
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      throwUnchecked(e);
+    }
+
+    return true;
+  }
+
+  /**
+   * Follows Jetty's gzip handler in only compressing GET responses and leaving alone media that is
+   * already compressed. Stubs that set their own encoding or length are left as they are.
+   */
+  private static boolean canCompress(Response response, HttpServletRequest httpServletRequest) {
+    return !response.getHeaders().getHeader(CONTENT_LENGTH).isPresent()
+        && mayBeCompressed(response, httpServletRequest);
+  }
+
+  /**
+   * Whether Jetty's gzip handler might compress the body if it was written through the response,
+   * in which case it can't be sent to Jetty's own output stream.
+   */
+  private static boolean mayBeCompressed(
+      Response response, HttpServletRequest httpServletRequest) {
+    HttpHeaders headers = response.getHeaders();
+    if (!GET.getName().equals(httpServletRequest.getMethod())
+        || headers.getHeader(CONTENT_ENCODING).isPresent()) {
+      return false;
+    }
+
+    return AcceptEncoding.preferredEncoding(httpServletRequest.getHeader(ACCEPT_ENCODING)) != null
+        && hasCompressibleType(headers);
+  }
+
+  private static boolean hasCompressibleType(HttpHeaders headers) {
+    String mimeType = headers.getContentTypeHeader().mimeTypePart();
+    if (mimeType == null) {
+      return true;
+    }
+
+    mimeType = mimeType.trim().toLowerCase();
+    if (mimeType.equals("image/svg+xml")) {
+      return true;
+    }
+
+    return !(mimeType.startsWith("image/")
+        || mimeType.startsWith("audio/")
+        || mimeType.startsWith("video/")
+        || UNCOMPRESSIBLE_MIME_TYPES.contains(mimeType));
+  }
+
   private FaultInjector buildFaultInjector(
       HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
     return faultHandlerFactory.buildFaultInjector(httpServletRequest, httpServletResponse);
@@ -249,6 +474,150 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
     }
   }
 
+  /**
+   * Sends file bodies without copying them onto the heap where Jetty's own output stream can be
+   * used, in which case single byte ranges are also honoured so that clients can resume downloads.
+   */
+  private static void writeFileAndTranslateExceptions(
+      Response response,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse,
+      File file) {
+    try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+      Optional<ServletOutputStream> directOutput =
+          directOutput(response, httpServletRequest, httpServletResponse);
+      if (!directOutput.isPresent()) {
+        try (ServletOutputStream out = httpServletResponse.getOutputStream()) {
+          ByteStreams.copy(Channels.newInputStream(channel), out);
+          out.flush();
+        }
+        return;
+      }
+
+      ByteRange range = selectRange(httpServletRequest, httpServletResponse, channel.size());
+      try (ServletOutputStream out = directOutput.get()) {
+        if (range == null) {
+          JettyUtils.sendContent(out, channel);
+        } else if (range != ByteRange.UNSATISFIABLE) {
+          InputStream rangeStream = Channels.newInputStream(channel.position(range.start()));
+          ByteStreams.copy(ByteStreams.limit(rangeStream, range.length()), out);
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      throwUnchecked(e);
+    }
+  }
+
+  /**
+   * Sends bodies held in full, such as cached body files, honouring byte ranges in the same way as
+   * for files.
+   */
+  private static void writeBytesAndTranslateExceptions(
+      Response response,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse,
+      byte[] body) {
+    try {
+      Optional<ServletOutputStream> directOutput =
+          directOutput(response, httpServletRequest, httpServletResponse);
+      if (!directOutput.isPresent()) {
+        writeAndTranslateExceptions(httpServletResponse, new ByteArrayInputStream(body));
+        return;
+      }
+
+      ByteRange range = selectRange(httpServletRequest, httpServletResponse, body.length);
+      try (ServletOutputStream out = directOutput.get()) {
+        if (range == ByteRange.UNSATISFIABLE) {
+          return;
+        }
+
+        ByteBuffer content = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        if (range != null) {
+          content.limit((int) (range.start() + range.length())).position((int) range.start());
+        }
+        JettyUtils.sendContent(out, content);
+      }
+    } catch (IOException e) {
+      throwUnchecked(e);
+    }
+  }
+
+  /**
+   * Sets the status and headers for the part of the body the client asked for. Returns the range
+   * to send, null to send the whole body, or {@link ByteRange#UNSATISFIABLE} to send nothing.
+   */
+  private static ByteRange selectRange(
+      HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, long length) {
+    ByteRange range = null;
+    if (acceptsRanges(httpServletResponse)) {
+      httpServletResponse.setHeader(ACCEPT_RANGES, "bytes");
+      range = requestedRange(httpServletRequest, length);
+      if (range == ByteRange.UNSATISFIABLE) {
+        httpServletResponse.setStatus(HTTP_RANGE_NOT_SATISFIABLE);
+        httpServletResponse.setHeader(CONTENT_RANGE, "bytes */" + length);
+        httpServletResponse.setHeader(CONTENT_LENGTH, "0");
+        return range;
+      }
+
+      if (range != null) {
+        httpServletResponse.setStatus(HTTP_PARTIAL);
+        httpServletResponse.setHeader(CONTENT_RANGE, range.toContentRange(length));
+      }
+    }
+
+    if (!httpServletResponse.containsHeader(CONTENT_LENGTH)) {
+      httpServletResponse.setHeader(
+          CONTENT_LENGTH, String.valueOf(range != null ? range.length() : length));
+    }
+
+    return range;
+  }
+
+  /**
+   * Jetty's own output stream, which content can be handed to without being copied, as long as the
+   * gzip handler wouldn't have compressed the body anyway.
+   */
+  private static Optional<ServletOutputStream> directOutput(
+      Response response,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse)
+      throws IOException {
+    if (!JETTY_PRESENT || mayBeCompressed(response, httpServletRequest)) {
+      return Optional.absent();
+    }
+
+    return JettyUtils.getDirectOutput(httpServletResponse);
+  }
+
+  private static boolean acceptsRanges(HttpServletResponse httpServletResponse) {
+    return httpServletResponse.getStatus() == HTTP_OK
+        && !httpServletResponse.containsHeader(CONTENT_LENGTH)
+        && !httpServletResponse.containsHeader(CONTENT_RANGE)
+        && !httpServletResponse.containsHeader(CONTENT_ENCODING);
+  }
+
+  private static ByteRange requestedRange(HttpServletRequest httpServletRequest, long length) {
+    if (!GET.getName().equals(httpServletRequest.getMethod())
+        || httpServletRequest.getHeader(IF_RANGE) != null) {
+      return null;
+    }
+
+    return ByteRange.parse(httpServletRequest.getHeader(RANGE), length);
+  }
+
+  private static boolean isJettyPresent() {
+    try {
+      Class.forName(
+          "org.eclipse.jetty.server.HttpOutput",
+          false,
+          WireMockHandlerDispatchingServlet.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
   private void writeAndTranslateExceptionsWithChunkedDribbleDelay(
       HttpServletResponse httpServletResponse,
       InputStream bodyStream,
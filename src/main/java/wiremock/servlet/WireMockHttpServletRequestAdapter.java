@@ -32,6 +32,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Maps;
 import java.io.ByteArrayInputStream;
@@ -66,6 +67,12 @@ public class WireMockHttpServletRequestAdapter implements Request {
   private byte[] cachedBody;
   private String urlPrefixToRemove;
   private Collection<Part> cachedMultiparts;
+  private String cachedUrl;
+  private RequestMethod cachedMethod;
+  private String cachedBodyAsString;
+  private HttpHeaders cachedHeaders;
+  private Map<String, Cookie> cachedCookies;
+  private Map<String, QueryParameter> cachedQueryParameters;
 
   public WireMockHttpServletRequestAdapter(HttpServletRequest request) {
     this.request = request;
@@ -78,6 +85,14 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
   @Override
   public String getUrl() {
+    if (cachedUrl == null) {
+      cachedUrl = buildUrl();
+    }
+
+    return cachedUrl;
+  }
+
+  private String buildUrl() {
     String url = request.getRequestURI();
 
     String contextPath = request.getContextPath();
@@ -102,7 +117,11 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
   @Override
   public RequestMethod getMethod() {
-    return RequestMethod.fromString(request.getMethod().toUpperCase());
+    if (cachedMethod == null) {
+      cachedMethod = RequestMethod.fromString(request.getMethod().toUpperCase());
+    }
+
+    return cachedMethod;
   }
 
   @Override
@@ -161,7 +180,11 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
   @Override
   public String getBodyAsString() {
-    return stringFromBytes(getBody(), encodingFromContentTypeHeaderOrUtf8());
+    if (cachedBodyAsString == null) {
+      cachedBodyAsString = stringFromBytes(getBody(), encodingFromContentTypeHeaderOrUtf8());
+    }
+
+    return cachedBodyAsString;
   }
 
   @Override
@@ -169,35 +192,15 @@ public class WireMockHttpServletRequestAdapter implements Request {
     return encodeBase64(getBody());
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public String getHeader(String key) {
-    List<String> headerNames = list(request.getHeaderNames());
-    for (String currentKey : headerNames) {
-      if (currentKey.toLowerCase().equals(key.toLowerCase())) {
-        return request.getHeader(currentKey);
-      }
-    }
-
-    return null;
+    HttpHeader header = header(key);
+    return header.isPresent() ? header.firstValue() : null;
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public HttpHeader header(String key) {
-    List<String> headerNames = list(request.getHeaderNames());
-    for (String currentKey : headerNames) {
-      if (currentKey.toLowerCase().equals(key.toLowerCase())) {
-        List<String> valueList = list(request.getHeaders(currentKey));
-        if (valueList.isEmpty()) {
-          return HttpHeader.empty(key);
-        }
-
-        return new HttpHeader(key, valueList);
-      }
-    }
-
-    return HttpHeader.absent(key);
+    return getHeaders().getHeader(key);
   }
 
   @Override
@@ -212,9 +215,19 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
   @Override
   public HttpHeaders getHeaders() {
+    if (cachedHeaders == null) {
+      cachedHeaders = buildHeaders();
+    }
+
+    return cachedHeaders;
+  }
+
+  @SuppressWarnings("unchecked")
+  private HttpHeaders buildHeaders() {
     List<HttpHeader> headerList = newArrayList();
     for (String key : getAllHeaderKeys()) {
-      headerList.add(header(key));
+      List<String> valueList = list(request.getHeaders(key));
+      headerList.add(valueList.isEmpty() ? HttpHeader.empty(key) : new HttpHeader(key, valueList));
     }
 
     return new HttpHeaders(headerList);
@@ -234,6 +247,14 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
   @Override
   public Map<String, Cookie> getCookies() {
+    if (cachedCookies == null) {
+      cachedCookies = buildCookies();
+    }
+
+    return cachedCookies;
+  }
+
+  private Map<String, Cookie> buildCookies() {
     ImmutableMultimap.Builder<String, String> builder = ImmutableMultimap.builder();
 
     javax.servlet.http.Cookie[] cookies =
@@ -242,20 +263,24 @@ public class WireMockHttpServletRequestAdapter implements Request {
       builder.put(cookie.getName(), cookie.getValue());
     }
 
-    return Maps.transformValues(
-        builder.build().asMap(),
-        new Function<Collection<String>, Cookie>() {
-          @Override
-          public Cookie apply(Collection<String> input) {
-            return new Cookie(null, ImmutableList.copyOf(input));
-          }
-        });
+    return ImmutableMap.copyOf(
+        Maps.transformValues(
+            builder.build().asMap(),
+            new Function<Collection<String>, Cookie>() {
+              @Override
+              public Cookie apply(Collection<String> input) {
+                return new Cookie(null, ImmutableList.copyOf(input));
+              }
+            }));
   }
 
   @Override
   public QueryParameter queryParameter(String key) {
-    return firstNonNull(
-        (splitQuery(request.getQueryString()).get(key)), QueryParameter.absent(key));
+    if (cachedQueryParameters == null) {
+      cachedQueryParameters = ImmutableMap.copyOf(splitQuery(request.getQueryString()));
+    }
+
+    return firstNonNull(cachedQueryParameters.get(key), QueryParameter.absent(key));
   }
 
   @Override
@@ -62,5 +62,10 @@ public class WireMockWebContextListener implements ServletContextListener {
   }
 
   @Override
-  public void contextDestroyed(ServletContextEvent sce) {}
+  public void contextDestroyed(ServletContextEvent sce) {
+    WireMockApp wireMockApp = (WireMockApp) sce.getServletContext().getAttribute(APP_CONTEXT_KEY);
+    if (wireMockApp != null) {
+      wireMockApp.stopRequestJournal();
+    }
+  }
 }
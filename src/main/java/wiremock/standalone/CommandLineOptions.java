@@ -55,6 +55,7 @@ import wiremock.jetty9.QueuedThreadPoolFactory;
 import wiremock.security.Authenticator;
 import wiremock.security.BasicAuthenticator;
 import wiremock.security.NoAuthenticator;
+import wiremock.stubbing.StubMatchingStrategy;
 import wiremock.verification.notmatched.NotMatchedRenderer;
 import wiremock.verification.notmatched.PlainTextStubNotMatchedRenderer;
 
@@ -80,6 +81,15 @@ public class CommandLineOptions implements Options {
   private static final String DISABLE_REQUEST_JOURNAL = "no-request-journal";
   private static final String EXTENSIONS = "extensions";
   private static final String MAX_ENTRIES_REQUEST_JOURNAL = "max-request-journal-entries";
+  private static final String REQUEST_JOURNAL_OFF_HEAP_BODY_THRESHOLD =
+      "request-journal-off-heap-body-threshold";
+  private static final String REQUEST_JOURNAL_DIR = "request-journal-dir";
+  private static final String REQUEST_JOURNAL_SEGMENT_SIZE = "request-journal-segment-size";
+  private static final String REQUEST_JOURNAL_MAX_BYTES = "request-journal-max-bytes";
+  private static final String REQUEST_JOURNAL_MAX_AGE = "request-journal-max-age";
+  private static final String ASYNCHRONOUS_REQUEST_JOURNAL = "async-request-journal";
+  private static final String REQUEST_JOURNAL_QUEUE_SIZE = "request-journal-queue-size";
+  private static final String REQUEST_JOURNAL_OVERFLOW = "request-journal-overflow";
   private static final String JETTY_ACCEPTOR_THREAD_COUNT = "jetty-acceptor-threads";
   private static final String PRINT_ALL_NETWORK_TRAFFIC = "print-all-network-traffic";
   private static final String JETTY_ACCEPT_QUEUE_SIZE = "jetty-accept-queue-size";
@@ -93,10 +103,17 @@ public class CommandLineOptions implements Options {
   private static final String ADMIN_API_REQUIRE_HTTPS = "admin-api-require-https";
   private static final String ASYNCHRONOUS_RESPONSE_ENABLED = "async-response-enabled";
   private static final String ASYNCHRONOUS_RESPONSE_THREADS = "async-response-threads";
+  private static final String STUB_MATCHING_STRATEGY = "stub-matching-strategy";
+  private static final String PARALLEL_STUB_MATCHING_THRESHOLD =
+      "parallel-stub-matching-threshold";
+  private static final String MAPPINGS_LOADER_THREADS = "mappings-loader-threads";
+  private static final String COMPILE_MAPPINGS_SNAPSHOT = "compile-mappings-snapshot";
+  private static final String BODY_FILE_CACHE_BUDGET = "body-file-cache-budget";
 
   private final OptionSet optionSet;
   private final FileSource fileSource;
   private final MappingsSource mappingsSource;
+  private final BodyFileCache bodyFileCache;
 
   private String helpText;
   private Optional<Integer> resultingPort;
@@ -180,6 +197,47 @@ public class CommandLineOptions implements Options {
             MAX_ENTRIES_REQUEST_JOURNAL,
             "Set maximum number of entries in request journal (if enabled) to discard old entries if the log becomes too large. Default: no discard")
         .withRequiredArg();
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_OFF_HEAP_BODY_THRESHOLD,
+            "Store request and response bodies larger than this many bytes outside the heap while they are in the request journal. Default: all bodies kept on the heap")
+        .withRequiredArg();
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_DIR,
+            "Also write the request journal to segment files in this directory, and reload it from them on startup")
+        .withRequiredArg();
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_SEGMENT_SIZE,
+            "Size in bytes at which a new request journal segment file is started")
+        .withRequiredArg()
+        .defaultsTo(String.valueOf(PersistentJournalSettings.DEFAULT_SEGMENT_SIZE_BYTES));
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_MAX_BYTES,
+            "Delete the oldest request journal segment files once their total size exceeds this many bytes. Default: no limit")
+        .withRequiredArg();
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_MAX_AGE,
+            "Delete request journal segment files last written more than this many seconds ago. Default: no limit")
+        .withRequiredArg();
+    optionParser.accepts(
+        ASYNCHRONOUS_REQUEST_JOURNAL,
+        "Journal requests on a background thread rather than before each response is sent");
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_QUEUE_SIZE,
+            "Number of requests waiting to be journaled when the request journal is asynchronous")
+        .withRequiredArg()
+        .defaultsTo(String.valueOf(AsynchronousJournalSettings.DEFAULT_QUEUE_SIZE));
+    optionParser
+        .accepts(
+            REQUEST_JOURNAL_OVERFLOW,
+            "What to do with requests when the asynchronous request journal's queue is full: drop, block or sample")
+        .withRequiredArg()
+        .defaultsTo("block");
     optionParser
         .accepts(JETTY_ACCEPTOR_THREAD_COUNT, "Number of Jetty acceptor threads")
         .withRequiredArg();
@@ -207,13 +265,41 @@ public class CommandLineOptions implements Options {
     optionParser.accepts(
         ADMIN_API_REQUIRE_HTTPS, "Require HTTPS to be used to access the admin API");
     optionParser
-        .accepts(ASYNCHRONOUS_RESPONSE_ENABLED, "Enable asynchronous response")
+        .accepts(
+            ASYNCHRONOUS_RESPONSE_ENABLED,
+            "Write delayed responses from a dedicated thread pool instead of the server's own")
         .withRequiredArg()
         .defaultsTo("false");
     optionParser
-        .accepts(ASYNCHRONOUS_RESPONSE_THREADS, "Number of asynchronous response threads")
+        .accepts(
+            ASYNCHRONOUS_RESPONSE_THREADS, "Number of threads writing delayed responses")
         .withRequiredArg()
         .defaultsTo("10");
+    optionParser
+        .accepts(
+            STUB_MATCHING_STRATEGY,
+            "How candidate stubs are selected for a request: linear-scan, method-and-url-index or url-path-tree")
+        .withRequiredArg()
+        .defaultsTo("method-and-url-index");
+    optionParser
+        .accepts(
+            PARALLEL_STUB_MATCHING_THRESHOLD,
+            "Match a request against candidate stubs in parallel when there are more than this many. Default: always sequential")
+        .withRequiredArg();
+    optionParser
+        .accepts(
+            MAPPINGS_LOADER_THREADS,
+            "Number of threads used to parse stub mapping files at startup. Default: number of processors")
+        .withRequiredArg();
+    optionParser
+        .accepts(
+            BODY_FILE_CACHE_BUDGET,
+            "Maximum number of bytes of response body files to keep in memory. 0 disables the cache. Default: 33554432")
+        .withRequiredArg();
+
+    optionParser.accepts(
+        COMPILE_MAPPINGS_SNAPSHOT,
+        "Write the stub mappings under the root directory to a snapshot file that is loaded in their place at startup, then exit");
 
     optionParser.accepts(HELP, "Print this message");
 
@@ -222,7 +308,11 @@ public class CommandLineOptions implements Options {
     captureHelpTextIfRequested(optionParser);
 
     fileSource = new SingleRootFileSource((String) optionSet.valueOf(ROOT_DIR));
-    mappingsSource = new JsonFileMappingsSource(fileSource.child(MAPPINGS_ROOT));
+    bodyFileCache =
+        new BodyFileCache(fileSource.child(WireMockApp.FILES_ROOT), bodyFileCacheBudgetBytes());
+    mappingsSource =
+        new JsonFileMappingsSource(
+            fileSource.child(MAPPINGS_ROOT), mappingsLoaderThreads(), notifier(), bodyFileCache);
 
     resultingPort = Optional.absent();
   }
@@ -365,6 +455,10 @@ public class CommandLineOptions implements Options {
     return optionSet.has(HELP);
   }
 
+  public boolean compileMappingsSnapshot() {
+    return optionSet.has(COMPILE_MAPPINGS_SNAPSHOT);
+  }
+
   public String helpText() {
     return helpText;
   }
@@ -504,6 +598,39 @@ public class CommandLineOptions implements Options {
     return Optional.absent();
   }
 
+  @Override
+  public PersistentJournalSettings getPersistentJournalSettings() {
+    return new PersistentJournalSettings(
+        (String) optionSet.valueOf(REQUEST_JOURNAL_DIR),
+        Long.parseLong((String) optionSet.valueOf(REQUEST_JOURNAL_SEGMENT_SIZE)),
+        optionalLong(REQUEST_JOURNAL_MAX_BYTES),
+        optionalLong(REQUEST_JOURNAL_MAX_AGE));
+  }
+
+  @Override
+  public AsynchronousJournalSettings getAsynchronousJournalSettings() {
+    return new AsynchronousJournalSettings(
+        optionSet.has(ASYNCHRONOUS_REQUEST_JOURNAL),
+        Integer.parseInt((String) optionSet.valueOf(REQUEST_JOURNAL_QUEUE_SIZE)),
+        JournalOverflowPolicy.valueOf(
+            ((String) optionSet.valueOf(REQUEST_JOURNAL_OVERFLOW)).toUpperCase()));
+  }
+
+  private Optional<Long> optionalLong(String option) {
+    return optionSet.has(option)
+        ? Optional.of(Long.parseLong((String) optionSet.valueOf(option)))
+        : Optional.<Long>absent();
+  }
+
+  @Override
+  public Optional<Integer> requestJournalOffHeapBodyThreshold() {
+    if (optionSet.has(REQUEST_JOURNAL_OFF_HEAP_BODY_THRESHOLD)) {
+      return Optional.of(
+          Integer.parseInt((String) optionSet.valueOf(REQUEST_JOURNAL_OFF_HEAP_BODY_THRESHOLD)));
+    }
+    return Optional.absent();
+  }
+
   @Override
   public int containerThreads() {
     if (optionSet.has(CONTAINER_THREADS)) {
@@ -602,4 +729,38 @@ public class CommandLineOptions implements Options {
   private int getAsynchronousResponseThreads() {
     return Integer.valueOf((String) optionSet.valueOf(ASYNCHRONOUS_RESPONSE_THREADS));
   }
+
+  @Override
+  public StubMatchingStrategy getStubMatchingStrategy() {
+    return StubMatchingStrategy.fromString((String) optionSet.valueOf(STUB_MATCHING_STRATEGY));
+  }
+
+  private int mappingsLoaderThreads() {
+    if (optionSet.has(MAPPINGS_LOADER_THREADS)) {
+      return Integer.parseInt((String) optionSet.valueOf(MAPPINGS_LOADER_THREADS));
+    }
+
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  @Override
+  public Optional<Integer> parallelStubMatchingThreshold() {
+    if (optionSet.has(PARALLEL_STUB_MATCHING_THRESHOLD)) {
+      return Optional.of(
+          Integer.parseInt((String) optionSet.valueOf(PARALLEL_STUB_MATCHING_THRESHOLD)));
+    }
+    return Optional.absent();
+  }
+  @Override
+  public BodyFileCache bodyFileCache() {
+    return bodyFileCache;
+  }
+
+  private long bodyFileCacheBudgetBytes() {
+    if (optionSet.has(BODY_FILE_CACHE_BUDGET)) {
+      return Long.parseLong((String) optionSet.valueOf(BODY_FILE_CACHE_BUDGET));
+    }
+    return BodyFileCache.DEFAULT_BUDGET_BYTES;
+  }
+
 }
@@ -16,23 +16,68 @@
 package wiremock.standalone;
 
 import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static wiremock.common.Exceptions.throwUnchecked;
 import static wiremock.common.Json.writePrivate;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import wiremock.common.*;
 import wiremock.stubbing.StubMapping;
 import wiremock.stubbing.StubMappings;
 
 public class JsonFileMappingsSource implements MappingsSource {
 
+  private static final int FILES_PER_TASK = 64;
+
   private final FileSource mappingsFileSource;
+  private final int loaderThreads;
+  private final Notifier notifier;
+  private final Optional<BodyFileCache> bodyFileCache;
   private final Map<UUID, String> fileNameMap;
 
   public JsonFileMappingsSource(FileSource mappingsFileSource) {
+    this(mappingsFileSource, Runtime.getRuntime().availableProcessors(), null);
+  }
+
+  public JsonFileMappingsSource(
+      FileSource mappingsFileSource, int loaderThreads, Notifier notifier) {
+    this(mappingsFileSource, loaderThreads, notifier, null);
+  }
+
+  /**
+   * @param bodyFileCache filled with the body files saved in the mappings snapshot, when one is
+   *     used, so that it should be the cache responses are served from. May be null.
+   */
+  public JsonFileMappingsSource(
+      FileSource mappingsFileSource,
+      int loaderThreads,
+      Notifier notifier,
+      BodyFileCache bodyFileCache) {
     this.mappingsFileSource = mappingsFileSource;
+    this.loaderThreads = loaderThreads;
+    this.notifier = notifier;
+    this.bodyFileCache = Optional.fromNullable(bodyFileCache);
     fileNameMap = new HashMap<>();
   }
 
@@ -76,18 +121,176 @@ public class JsonFileMappingsSource implements MappingsSource {
     if (!mappingsFileSource.exists()) {
       return;
     }
-    Iterable<TextFile> mappingFiles =
-        filter(
-            mappingsFileSource.listFilesRecursively(), AbstractFileSource.byFileExtension("json"));
+
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    Optional<MappingsSnapshot> snapshot = openFreshSnapshot();
+    List<MappingDocument> documents =
+        snapshot.isPresent() ? documentsIn(snapshot.get()) : discoverMappingFiles();
+    if (snapshot.isPresent() && bodyFileCache.isPresent()) {
+      snapshot.get().preloadBodyFilesInto(bodyFileCache.get());
+    }
+    long discoveryMillis = stopwatch.elapsed(MILLISECONDS);
+
+    List<StubMapping> mappings = parse(documents);
+    long parsingMillis = stopwatch.elapsed(MILLISECONDS) - discoveryMillis;
+
+    stubMappings.addMappings(mappings);
+    for (int i = 0; i < mappings.size(); i++) {
+      fileNameMap.put(mappings.get(i).getId(), documents.get(i).path);
+    }
+
+    long totalMillis = stopwatch.elapsed(MILLISECONDS);
+    notifier()
+        .info(
+            String.format(
+                "Loaded %d stub mappings from %s in %dms (discovery %dms, parsing %dms, insertion %dms)",
+                mappings.size(),
+                snapshot.isPresent()
+                    ? new File(mappingsFileSource.getPath(), MappingsSnapshot.FILE_NAME).getPath()
+                    : mappingsFileSource.getPath(),
+                totalMillis,
+                discoveryMillis,
+                parsingMillis,
+                totalMillis - discoveryMillis - parsingMillis));
+  }
+
+  private List<MappingDocument> discoverMappingFiles() {
+    List<TextFile> mappingFiles =
+        newArrayList(
+            filter(
+                mappingsFileSource.listFilesRecursively(),
+                AbstractFileSource.byFileExtension("json")));
+    // Sorted so that insertion order, and therefore the tie break between equal priorities, does
+    // not depend on the order the file system happens to list directories in
+    Collections.sort(mappingFiles, byPath());
+
+    List<MappingDocument> documents = new ArrayList<>(mappingFiles.size());
     for (TextFile mappingFile : mappingFiles) {
-      try {
-        StubMapping mapping = StubMapping.buildFrom(mappingFile.readContentsAsString());
+      documents.add(new MappingDocument(mappingFile.getPath(), mappingFile));
+    }
+    return documents;
+  }
+
+  private Optional<MappingsSnapshot> openFreshSnapshot() {
+    URI uri = mappingsFileSource.getUri();
+    if (!"file".equals(uri.getScheme())) {
+      return Optional.absent();
+    }
+
+    File mappingsDirectory = new File(uri);
+    File snapshotFile = new File(mappingsDirectory, MappingsSnapshot.FILE_NAME);
+    if (!snapshotFile.isFile()) {
+      return Optional.absent();
+    }
+
+    try {
+      Optional<MappingsSnapshot> snapshot = MappingsSnapshot.openIfFresh(mappingsDirectory);
+      if (!snapshot.isPresent()) {
+        notifier()
+            .info(
+                "Ignoring "
+                    + snapshotFile.getPath()
+                    + " because it is out of date with the mapping or body files");
+      }
+      return snapshot;
+    } catch (IOException e) {
+      notifier().error("Could not read " + snapshotFile.getPath(), e);
+      return Optional.absent();
+    }
+  }
+
+  private List<MappingDocument> documentsIn(MappingsSnapshot snapshot) {
+    File mappingsDirectory = new File(mappingsFileSource.getUri());
+    List<MappingDocument> documents = new ArrayList<>(snapshot.size());
+    for (int i = 0; i < snapshot.size(); i++) {
+      String path = new File(mappingsDirectory, snapshot.mappingFileAt(i)).getPath();
+      documents.add(new MappingDocument(path, snapshot.mappingAt(i)));
+    }
+    return documents;
+  }
+
+  private List<StubMapping> parse(List<MappingDocument> documents) {
+    final ObjectReader reader = Json.getObjectMapper().readerFor(StubMapping.class);
+    if (loaderThreads <= 1 || documents.size() <= FILES_PER_TASK) {
+      return parse(reader, documents);
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            loaderThreads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("wiremock-mappings-loader-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      List<Future<List<StubMapping>>> parsedChunks = new ArrayList<>();
+      for (int from = 0; from < documents.size(); from += FILES_PER_TASK) {
+        final List<MappingDocument> chunk =
+            documents.subList(from, Math.min(from + FILES_PER_TASK, documents.size()));
+        parsedChunks.add(
+            executor.submit(
+                new Callable<List<StubMapping>>() {
+                  @Override
+                  public List<StubMapping> call() {
+                    return parse(reader, chunk);
+                  }
+                }));
+      }
+
+      List<StubMapping> mappings = new ArrayList<>(documents.size());
+      for (Future<List<StubMapping>> parsedChunk : parsedChunks) {
+        mappings.addAll(parsedChunk.get());
+      }
+      return mappings;
+    } catch (ExecutionException e) {
+      throwUnchecked(e.getCause());
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throwUnchecked(e);
+      return null;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<StubMapping> parse(ObjectReader reader, List<MappingDocument> documents) {
+    List<StubMapping> mappings = new ArrayList<>(documents.size());
+    for (MappingDocument document : documents) {
+      try (InputStream in = document.source.getStream()) {
+        StubMapping mapping = reader.readValue(in);
         mapping.setDirty(false);
-        stubMappings.addMapping(mapping);
-        fileNameMap.put(mapping.getId(), mappingFile.getPath());
-      } catch (JsonException e) {
-        throw new MappingFileException(mappingFile.getPath(), e.getErrors().first().getDetail());
+        mappings.add(mapping);
+      } catch (JsonMappingException e) {
+        throw new MappingFileException(
+            document.path, JsonException.fromJackson(e).getErrors().first().getDetail());
+      } catch (IOException ioe) {
+        throwUnchecked(ioe);
       }
     }
+    return mappings;
+  }
+
+  private Notifier notifier() {
+    return notifier != null ? notifier : LocalNotifier.notifier();
+  }
+
+  private static Comparator<TextFile> byPath() {
+    return new Comparator<TextFile>() {
+      @Override
+      public int compare(TextFile one, TextFile two) {
+        return one.getPath().compareTo(two.getPath());
+      }
+    };
+  }
+
+  private static class MappingDocument {
+    final String path;
+    final InputStreamSource source;
+
+    MappingDocument(String path, InputStreamSource source) {
+      this.path = path;
+      this.source = source;
+    }
   }
 }
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.standalone;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static wiremock.common.Exceptions.throwUnchecked;
+import static wiremock.core.WireMockApp.FILES_ROOT;
+import static wiremock.core.WireMockApp.MAPPINGS_ROOT;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.base.Optional;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import wiremock.common.BodyFileCache;
+import wiremock.common.InputStreamSource;
+import wiremock.common.Json;
+import wiremock.common.JsonException;
+import wiremock.stubbing.StubMapping;
+
+/**
+ * A single file holding every stub mapping under a root directory's {@code mappings} folder,
+ * validated and stripped of formatting, along with the contents of the small {@code __files}
+ * bodies they refer to. It is written by {@link #compile(File)}, or {@code
+ * --compile-mappings-snapshot}, as part of building an immutable mock image and read by {@link
+ * JsonFileMappingsSource} in place of the individual mapping files for as long as none of the
+ * files it was built from have changed. The mappings still name their body files, whose contents
+ * are only used to fill the {@link BodyFileCache} ahead of the first request for them.
+ *
+ * <p>This only saves opening and reading each mapping file. The whole snapshot is read onto the
+ * heap, its mappings are still bound by Jackson on every start and the freshness check still
+ * lists every mapping file, so it starts only modestly faster than loading the files themselves.
+ */
+public class MappingsSnapshot {
+
+  public static final String FILE_NAME = "mappings.snapshot";
+  public static final int DEFAULT_INLINE_BODY_LIMIT = 64 * 1024;
+
+  private static final long MAGIC = 0x574d534e41505348L; // "WMSNAPSH"
+  private static final int FORMAT_VERSION = 2;
+
+  private final ByteBuffer buffer;
+  private final List<Entry> entries;
+  private final List<Entry> bodyFiles;
+
+  private MappingsSnapshot(ByteBuffer buffer, List<Entry> entries, List<Entry> bodyFiles) {
+    this.buffer = buffer;
+    this.entries = entries;
+    this.bodyFiles = bodyFiles;
+  }
+
+  public static File compile(File rootDirectory) {
+    return compile(rootDirectory, DEFAULT_INLINE_BODY_LIMIT);
+  }
+
+  /**
+   * Validates every mapping file under {@code rootDirectory/mappings} and writes them to {@code
+   * rootDirectory/mappings/mappings.snapshot}, along with the body files they refer to that are
+   * no larger than {@code inlineBodyLimit} bytes.
+   */
+  public static File compile(File rootDirectory, int inlineBodyLimit) {
+    Path mappingsDirectory = rootDirectory.toPath().resolve(MAPPINGS_ROOT);
+    Path filesDirectory = rootDirectory.toPath().resolve(FILES_ROOT);
+    Path snapshotFile = mappingsDirectory.resolve(FILE_NAME);
+    ObjectMapper mapper = Json.getObjectMapper();
+
+    try {
+      Map<String, BasicFileAttributes> mappingFiles = listMappingFiles(mappingsDirectory);
+      Map<String, BasicFileAttributes> inlinedFiles = new TreeMap<>();
+      List<byte[]> documents = new ArrayList<>(mappingFiles.size());
+      for (String mappingFile : mappingFiles.keySet()) {
+        Path path = mappingsDirectory.resolve(mappingFile);
+        JsonNode mapping;
+        try {
+          mapping = mapper.readTree(path.toFile());
+          mapper.treeToValue(mapping, StubMapping.class);
+        } catch (JsonMappingException e) {
+          throw new MappingFileException(
+              path.toString(), JsonException.fromJackson(e).getErrors().first().getDetail());
+        }
+
+        String inlinedFile = bodyFileToInline(mapping, filesDirectory, inlineBodyLimit);
+        if (inlinedFile != null) {
+          inlinedFiles.put(
+              inlinedFile,
+              Files.readAttributes(filesDirectory.resolve(inlinedFile), BasicFileAttributes.class));
+        }
+        documents.add(mapper.writeValueAsBytes(mapping));
+      }
+
+      Path tempFile = mappingsDirectory.resolve(FILE_NAME + ".tmp");
+      try (OutputStream out = Files.newOutputStream(tempFile);
+          DataOutputStream data = new DataOutputStream(out)) {
+        data.writeLong(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(fingerprintOf(mappingFiles));
+        data.writeInt(inlinedFiles.size());
+        for (Map.Entry<String, BasicFileAttributes> inlinedFile : inlinedFiles.entrySet()) {
+          byte[] body = Files.readAllBytes(filesDirectory.resolve(inlinedFile.getKey()));
+          writeString(data, inlinedFile.getKey());
+          data.writeLong(inlinedFile.getValue().size());
+          data.writeLong(inlinedFile.getValue().lastModifiedTime().toMillis());
+          data.writeInt(body.length);
+          data.write(body);
+        }
+        data.writeInt(documents.size());
+        int i = 0;
+        for (String mappingFile : mappingFiles.keySet()) {
+          writeString(data, mappingFile);
+          byte[] document = documents.get(i++);
+          data.writeInt(document.length);
+          data.write(document);
+        }
+      }
+      Files.move(tempFile, snapshotFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException ioe) {
+      throwUnchecked(ioe);
+    }
+
+    return snapshotFile.toFile();
+  }
+
+  /**
+   * Reads the snapshot in {@code mappingsDirectory}, returning absent if there is none or if the
+   * mapping files or inlined body files have been added, removed or modified since it was
+   * compiled. It's read onto the heap rather than mapped, so the file isn't held open and can be
+   * replaced while the server runs.
+   */
+  static Optional<MappingsSnapshot> openIfFresh(File mappingsDirectory) throws IOException {
+    Path snapshotFile = mappingsDirectory.toPath().resolve(FILE_NAME);
+    if (!Files.isRegularFile(snapshotFile)) {
+      return Optional.absent();
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+    try {
+      if (buffer.getLong() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        return Optional.absent();
+      }
+
+      long fingerprint = buffer.getLong();
+      Path filesDirectory = mappingsDirectory.toPath().resolveSibling(FILES_ROOT);
+      int bodyFileCount = buffer.getInt();
+      List<Entry> bodyFiles = new ArrayList<>(bodyFileCount);
+      for (int i = 0; i < bodyFileCount; i++) {
+        String name = readString(buffer);
+        Path inlinedFile = filesDirectory.resolve(name);
+        long size = buffer.getLong();
+        long lastModified = buffer.getLong();
+        if (!Files.isRegularFile(inlinedFile)
+            || Files.size(inlinedFile) != size
+            || Files.getLastModifiedTime(inlinedFile).toMillis() != lastModified) {
+          return Optional.absent();
+        }
+
+        bodyFiles.add(readEntry(buffer, name, lastModified));
+      }
+
+      if (fingerprint != fingerprintOf(listMappingFiles(mappingsDirectory.toPath()))) {
+        return Optional.absent();
+      }
+
+      int count = buffer.getInt();
+      List<Entry> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        entries.add(readEntry(buffer, readString(buffer), 0));
+      }
+
+      return Optional.of(new MappingsSnapshot(buffer, entries, bodyFiles));
+    } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+      return Optional.absent();
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  String mappingFileAt(int index) {
+    return entries.get(index).name;
+  }
+
+  InputStreamSource mappingAt(int index) {
+    final Entry entry = entries.get(index);
+    return new InputStreamSource() {
+      @Override
+      public InputStream getStream() {
+        return new ByteBufferBackedInputStream(contentsOf(entry));
+      }
+    };
+  }
+
+  /** Fills the cache with the body files saved in the snapshot. */
+  void preloadBodyFilesInto(BodyFileCache bodyFileCache) {
+    for (Entry bodyFile : bodyFiles) {
+      byte[] body = new byte[bodyFile.length];
+      contentsOf(bodyFile).get(body);
+      bodyFileCache.preload(bodyFile.name, body, bodyFile.lastModified);
+    }
+  }
+
+  private ByteBuffer contentsOf(Entry entry) {
+    ByteBuffer contents = buffer.duplicate();
+    contents.position(entry.offset);
+    contents.limit(entry.offset + entry.length);
+    return contents;
+  }
+
+  private static String bodyFileToInline(JsonNode mapping, Path filesDirectory, int limit)
+      throws IOException {
+    JsonNode response = mapping.get("response");
+    JsonNode bodyFileName = response != null ? response.get("bodyFileName") : null;
+    if (bodyFileName == null || !bodyFileName.isTextual() || bodyFileName.asText().contains("{{")) {
+      return null;
+    }
+
+    Path bodyFile = filesDirectory.resolve(bodyFileName.asText());
+    if (!Files.isRegularFile(bodyFile) || Files.size(bodyFile) > limit) {
+      return null;
+    }
+
+    return bodyFileName.asText();
+  }
+
+  private static Map<String, BasicFileAttributes> listMappingFiles(final Path mappingsDirectory)
+      throws IOException {
+    final Map<String, BasicFileAttributes> mappingFiles = new TreeMap<>();
+    if (!Files.isDirectory(mappingsDirectory)) {
+      return mappingFiles;
+    }
+
+    Files.walkFileTree(
+        mappingsDirectory,
+        EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+        Integer.MAX_VALUE,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (file.getFileName().toString().endsWith(".json")) {
+              String relativePath = mappingsDirectory.relativize(file).toString();
+              mappingFiles.put(relativePath.replace(File.separatorChar, '/'), attrs);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+            if (exc instanceof FileSystemLoopException) {
+              return FileVisitResult.CONTINUE;
+            }
+            throw exc;
+          }
+        });
+    return mappingFiles;
+  }
+
+  private static long fingerprintOf(Map<String, BasicFileAttributes> mappingFiles) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (Map.Entry<String, BasicFileAttributes> mappingFile : mappingFiles.entrySet()) {
+      hasher
+          .putString(mappingFile.getKey(), UTF_8)
+          .putLong(mappingFile.getValue().size())
+          .putLong(mappingFile.getValue().lastModifiedTime().toMillis());
+    }
+    return hasher.hash().asLong();
+  }
+
+  private static void writeString(DataOutputStream data, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  private static Entry readEntry(ByteBuffer buffer, String name, long lastModified) {
+    int length = buffer.getInt();
+    Entry entry = new Entry(name, buffer.position(), length, lastModified);
+    buffer.position(buffer.position() + length);
+    return entry;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static class Entry {
+    final String name;
+    final int offset;
+    final int length;
+    final long lastModified;
+
+    Entry(String name, int offset, int length, long lastModified) {
+      this.name = name;
+      this.offset = offset;
+      this.length = length;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import static wiremock.core.WireMockApp.MAPPINGS_ROOT;
 import static wiremock.http.RequestMethod.ANY;
 import static wiremock.matching.RequestPatternBuilder.newRequestPattern;
 
+import java.io.File;
 import wiremock.WireMockServer;
 import wiremock.common.FatalStartupException;
 import wiremock.common.FileSource;
@@ -56,6 +57,12 @@ public class WireMockServerRunner {
       return;
     }
 
+    if (options.compileMappingsSnapshot()) {
+      File snapshotFile = MappingsSnapshot.compile(new File(options.filesRoot().getPath()));
+      out.println("Wrote stub mappings snapshot " + snapshotFile.getPath());
+      return;
+    }
+
     FileSource fileSource = options.filesRoot();
     fileSource.createIfNecessary();
     FileSource filesFileSource = fileSource.child(FILES_ROOT);
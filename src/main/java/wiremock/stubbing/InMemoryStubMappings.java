@@ -24,6 +24,7 @@ import static wiremock.http.ResponseDefinition.copyOf;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -35,23 +36,45 @@ import wiremock.core.WireMockApp;
 import wiremock.extension.ResponseDefinitionTransformer;
 import wiremock.http.Request;
 import wiremock.http.ResponseDefinition;
+import wiremock.http.StaticResponse;
 import wiremock.matching.RequestMatcherExtension;
 import wiremock.matching.StringValuePattern;
 import wiremock.verification.LoggedRequest;
 
 public class InMemoryStubMappings implements StubMappings {
 
-  private final SortedConcurrentMappingSet mappings = new SortedConcurrentMappingSet();
+  private final SortedConcurrentMappingSet mappings;
   private final Scenarios scenarios = new Scenarios();
   private final Map<String, RequestMatcherExtension> customMatchers;
   private final Map<String, ResponseDefinitionTransformer> transformers;
   private final FileSource rootFileSource;
+  private final Optional<ParallelStubMatcher> parallelStubMatcher;
+  // By identity and weakly, so a rendering is dropped along with the definition it was made from
+  private final Map<ResponseDefinition, StaticResponse> staticResponses =
+      new MapMaker().weakKeys().makeMap();
 
   public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers,
       Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource) {
+    this(customMatchers, transformers, rootFileSource, StubMatchingStrategy.DEFAULT);
+  }
+
+  public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers,
+      Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource,
+      StubMatchingStrategy matchingStrategy) {
+    this(customMatchers, transformers, rootFileSource, matchingStrategy,
+        Optional.<Integer>absent());
+  }
+
+  public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers,
+      Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource,
+      StubMatchingStrategy matchingStrategy, Optional<Integer> parallelMatchingThreshold) {
+    this.mappings = new SortedConcurrentMappingSet(matchingStrategy);
     this.customMatchers = customMatchers;
     this.transformers = transformers;
     this.rootFileSource = rootFileSource;
+    this.parallelStubMatcher = parallelMatchingThreshold.isPresent()
+        ? Optional.of(new ParallelStubMatcher(parallelMatchingThreshold.get()))
+        : Optional.<ParallelStubMatcher>absent();
   }
 
   public InMemoryStubMappings() {
@@ -62,16 +85,26 @@ public class InMemoryStubMappings implements StubMappings {
 
   @Override
   public ServeEvent serveFor(Request request) {
-    StubMapping matchingMapping = find(mappings, mappingMatchingAndInCorrectScenarioState(request),
-        StubMapping.NOT_CONFIGURED);
+    Iterable<StubMapping> candidates = mappings.candidatesFor(request);
+    Predicate<StubMapping> matcher = mappingMatchingAndInCorrectScenarioState(request);
+    StubMapping matchingMapping = parallelStubMatcher.isPresent()
+        ? parallelStubMatcher.get().findFirst(candidates, matcher).or(StubMapping.NOT_CONFIGURED)
+        : find(candidates, matcher, StubMapping.NOT_CONFIGURED);
 
     scenarios.onStubServed(matchingMapping);
 
-    ResponseDefinition responseDefinition = applyTransformations(request,
-        matchingMapping.getResponse(), ImmutableList.copyOf(transformers.values()));
+    ResponseDefinition stubResponse = matchingMapping.getResponse();
+    StaticResponse staticResponse = staticResponses.get(stubResponse);
+    ResponseDefinition responseDefinition;
+    if (staticResponse != null) {
+      responseDefinition = copyOf(stubResponse);
+      responseDefinition.setStaticResponse(staticResponse);
+    } else {
+      responseDefinition = copyOf(applyTransformations(request, stubResponse,
+          ImmutableList.copyOf(transformers.values())));
+    }
 
-    return ServeEvent.of(LoggedRequest.createFrom(request), copyOf(responseDefinition),
-        matchingMapping);
+    return ServeEvent.of(LoggedRequest.createFrom(request), responseDefinition, matchingMapping);
   }
 
   private ResponseDefinition applyTransformations(Request request,
@@ -91,16 +124,54 @@ public class InMemoryStubMappings implements StubMappings {
         transformers.subList(1, transformers.size()));
   }
 
+  /**
+   * Renders the response in advance if it can't vary between requests. The rendering is kept here
+   * rather than on the caller's stub, and is only attached to the copy of its response definition
+   * made for each request. Edited stubs are rendered afresh, so a stale rendering is never served.
+   */
+  private void renderIfStatic(StubMapping mapping) {
+    ResponseDefinition response = mapping.getResponse();
+    if (response == null || anyTransformerAppliesGlobally()) {
+      return;
+    }
+
+    Optional<StaticResponse> staticResponse = StaticResponse.renderIfStatic(response);
+    if (staticResponse.isPresent()) {
+      staticResponses.put(response, staticResponse.get());
+    }
+  }
+
+  private boolean anyTransformerAppliesGlobally() {
+    for (ResponseDefinitionTransformer transformer : transformers.values()) {
+      if (transformer.applyGlobally()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void addMapping(StubMapping mapping) {
+    renderIfStatic(mapping);
     mappings.add(mapping);
-    scenarios.onStubMappingAddedOrUpdated(mapping, mappings);
+    scenarios.onStubMappingAdded(mapping);
+  }
+
+  @Override
+  public void addMappings(List<StubMapping> mappings) {
+    for (StubMapping mapping : mappings) {
+      renderIfStatic(mapping);
+    }
+    this.mappings.addAll(mappings);
+    for (StubMapping mapping : mappings) {
+      scenarios.onStubMappingAdded(mapping);
+    }
   }
 
   @Override
   public void removeMapping(StubMapping mapping) {
     mappings.remove(mapping);
-    scenarios.onStubMappingRemoved(mapping, mappings);
+    scenarios.onStubMappingRemoved(mapping);
   }
 
   @Override
@@ -118,9 +189,10 @@ public class InMemoryStubMappings implements StubMappings {
 
     stubMapping.setInsertionIndex(existingMapping.getInsertionIndex());
     stubMapping.setDirty(true);
+    renderIfStatic(stubMapping);
 
     mappings.replace(existingMapping, stubMapping);
-    scenarios.onStubMappingAddedOrUpdated(stubMapping, mappings);
+    scenarios.onStubMappingUpdated(existingMapping, stubMapping);
   }
 
   @Override
@@ -177,8 +249,7 @@ public class InMemoryStubMappings implements StubMappings {
     return new Predicate<StubMapping>() {
       public boolean apply(StubMapping mapping) {
         return mapping.getRequest()
-            .match(request, customMatchers)
-            .isExactMatch() && (mapping.isIndependentOfScenarioState()
+            .isMatchedBy(request, customMatchers) && (mapping.isIndependentOfScenarioState()
             || scenarios.mappingMatchesScenarioState(mapping));
       }
     };
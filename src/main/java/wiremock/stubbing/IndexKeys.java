@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import java.net.URI;
+import wiremock.matching.EqualToPattern;
+import wiremock.matching.RegexPattern;
+import wiremock.matching.RequestPattern;
+import wiremock.matching.StringValuePattern;
+import wiremock.matching.UrlPathPattern;
+import wiremock.matching.UrlPattern;
+
+/** Derives the literal keys that stub and journal indexes can look request patterns up by. */
+public class IndexKeys {
+
+  private IndexKeys() {}
+
+  public static boolean isCustom(RequestPattern requestPattern) {
+    return requestPattern.hasCustomMatcher() || requestPattern.getCustomMatcher() != null;
+  }
+
+  public static boolean isIndexableUrlPattern(UrlPattern urlPattern) {
+    return urlPattern != null
+        && (urlPattern.getClass() == UrlPattern.class
+            || urlPattern.getClass() == UrlPathPattern.class);
+  }
+
+  public static boolean isPathPattern(UrlPattern urlPattern) {
+    return urlPattern.getClass() == UrlPathPattern.class;
+  }
+
+  public static String safelyGetPath(String url) {
+    if (url == null) {
+      return null;
+    }
+
+    try {
+      return URI.create(url).getRawPath();
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  public static String literalEqualToValue(UrlPattern urlPattern) {
+    StringValuePattern pattern = urlPattern.getPattern();
+    if (pattern.getClass() == EqualToPattern.class
+        && !Boolean.TRUE.equals(((EqualToPattern) pattern).getCaseInsensitive())) {
+      return pattern.getValue();
+    }
+
+    return null;
+  }
+
+  public static String literalDirectoryPrefix(UrlPattern urlPattern) {
+    StringValuePattern pattern = urlPattern.getPattern();
+    if (pattern.getClass() != RegexPattern.class) {
+      return null;
+    }
+
+    String prefix = ((RegexPattern) pattern).getLiteralPrefix();
+    int lastSlash = prefix.lastIndexOf('/');
+    return lastSlash == -1 ? null : prefix.substring(0, lastSlash + 1);
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import wiremock.http.Request;
+
+/**
+ * Offers every mapping as a candidate, scanning the owning set's mappings directly. The owning set
+ * keeps them up to date, so there is nothing to maintain here.
+ */
+class LinearScanIndex implements StubMappingIndex {
+
+  private final Iterable<StubMapping> mappings;
+
+  LinearScanIndex(Iterable<StubMapping> mappings) {
+    this.mappings = mappings;
+  }
+
+  @Override
+  public void add(StubMapping mapping) {}
+
+  @Override
+  public void addAll(Iterable<StubMapping> mappings) {}
+
+  @Override
+  public void remove(StubMapping mapping) {}
+
+  @Override
+  public void clear() {}
+
+  @Override
+  public Iterable<StubMapping> candidatesFor(Request request) {
+    return mappings;
+  }
+}
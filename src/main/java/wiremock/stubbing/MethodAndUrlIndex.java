@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import static wiremock.stubbing.IndexKeys.isCustom;
+import static wiremock.stubbing.IndexKeys.isIndexableUrlPattern;
+import static wiremock.stubbing.IndexKeys.isPathPattern;
+import static wiremock.stubbing.IndexKeys.literalDirectoryPrefix;
+import static wiremock.stubbing.IndexKeys.literalEqualToValue;
+import static wiremock.stubbing.IndexKeys.safelyGetPath;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import wiremock.http.Request;
+import wiremock.http.RequestMethod;
+import wiremock.matching.RequestPattern;
+import wiremock.matching.UrlPattern;
+
+/**
+ * Narrows the stub mappings that need to be fully matched against a request, keyed on HTTP method
+ * and on the literal URL, URL path or literal path prefix of each stub. Stubs that can't be keyed
+ * this way go into a fallback bucket that is always consulted. Writes are serialised, reads never
+ * block.
+ */
+class MethodAndUrlIndex implements StubMappingIndex {
+
+  private final Comparator<StubMapping> comparator;
+  private final ConcurrentMap<RequestMethod, UrlBuckets> byMethod = new ConcurrentHashMap<>();
+
+  MethodAndUrlIndex(Comparator<StubMapping> comparator) {
+    this.comparator = comparator;
+  }
+
+  @Override
+  public synchronized void add(StubMapping mapping) {
+    RequestMethod method = methodKeyFor(mapping.getRequest());
+    UrlBuckets buckets = byMethod.get(method);
+    if (buckets == null) {
+      buckets = new UrlBuckets();
+      byMethod.put(method, buckets);
+    }
+
+    buckets.add(mapping);
+  }
+
+  @Override
+  public synchronized void addAll(Iterable<StubMapping> mappings) {
+    for (StubMapping mapping : mappings) {
+      add(mapping);
+    }
+  }
+
+  @Override
+  public synchronized void remove(StubMapping mapping) {
+    RequestMethod method = methodKeyFor(mapping.getRequest());
+    UrlBuckets buckets = byMethod.get(method);
+    if (buckets != null) {
+      buckets.remove(mapping);
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    byMethod.clear();
+  }
+
+  @Override
+  public Iterable<StubMapping> candidatesFor(Request request) {
+    String url = request.getUrl();
+    String path = safelyGetPath(url);
+
+    ImmutableList.Builder<Iterable<StubMapping>> candidates = ImmutableList.builder();
+    RequestMethod method = request.getMethod();
+    if (method != null && !RequestMethod.ANY.equals(method)) {
+      addCandidates(byMethod.get(method), url, path, candidates);
+    }
+    addCandidates(byMethod.get(RequestMethod.ANY), url, path, candidates);
+
+    return Iterables.mergeSorted(candidates.build(), comparator);
+  }
+
+  private static void addCandidates(
+      UrlBuckets buckets,
+      String url,
+      String path,
+      ImmutableList.Builder<Iterable<StubMapping>> candidates) {
+    if (buckets != null) {
+      buckets.addCandidates(url, path, candidates);
+    }
+  }
+
+  private static RequestMethod methodKeyFor(RequestPattern requestPattern) {
+    if (isCustom(requestPattern) || requestPattern.getMethod() == null) {
+      return RequestMethod.ANY;
+    }
+
+    return requestPattern.getMethod();
+  }
+
+  private enum KeyType {
+    URL,
+    PATH,
+    URL_PREFIX,
+    PATH_PREFIX,
+    NONE
+  }
+
+  private class UrlBuckets {
+
+    private final ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> urls =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> paths =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> urlPrefixes =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> pathPrefixes =
+        new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<StubMapping> others =
+        new ConcurrentSkipListSet<>(comparator);
+
+    void add(StubMapping mapping) {
+      RequestPattern requestPattern = mapping.getRequest();
+      KeyType keyType = keyTypeFor(requestPattern);
+      if (keyType == KeyType.NONE) {
+        others.add(mapping);
+        return;
+      }
+
+      ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> map = mapFor(keyType);
+      String key = keyFor(keyType, requestPattern.getUrlMatcher());
+      ConcurrentSkipListSet<StubMapping> bucket = map.get(key);
+      if (bucket == null) {
+        bucket = new ConcurrentSkipListSet<>(comparator);
+        map.put(key, bucket);
+      }
+
+      bucket.add(mapping);
+    }
+
+    void remove(StubMapping mapping) {
+      RequestPattern requestPattern = mapping.getRequest();
+      KeyType keyType = keyTypeFor(requestPattern);
+      if (keyType == KeyType.NONE) {
+        others.remove(mapping);
+        return;
+      }
+
+      ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> map = mapFor(keyType);
+      String key = keyFor(keyType, requestPattern.getUrlMatcher());
+      ConcurrentSkipListSet<StubMapping> bucket = map.get(key);
+      if (bucket != null) {
+        bucket.remove(mapping);
+        if (bucket.isEmpty()) {
+          map.remove(key);
+        }
+      }
+    }
+
+    void addCandidates(
+        String url, String path, ImmutableList.Builder<Iterable<StubMapping>> candidates) {
+      addIfPresent(urls, url, candidates);
+      addIfPresent(paths, path, candidates);
+      addPrefixCandidates(urlPrefixes, url, candidates);
+      addPrefixCandidates(pathPrefixes, path, candidates);
+      candidates.add(others);
+    }
+
+    private KeyType keyTypeFor(RequestPattern requestPattern) {
+      UrlPattern urlPattern = requestPattern.getUrlMatcher();
+      if (isCustom(requestPattern) || !isIndexableUrlPattern(urlPattern)) {
+        return KeyType.NONE;
+      }
+
+      boolean isPathPattern = isPathPattern(urlPattern);
+      if (literalEqualToValue(urlPattern) != null) {
+        return isPathPattern ? KeyType.PATH : KeyType.URL;
+      }
+
+      if (literalDirectoryPrefix(urlPattern) != null) {
+        return isPathPattern ? KeyType.PATH_PREFIX : KeyType.URL_PREFIX;
+      }
+
+      return KeyType.NONE;
+    }
+
+    private String keyFor(KeyType keyType, UrlPattern urlPattern) {
+      return keyType == KeyType.URL || keyType == KeyType.PATH
+          ? literalEqualToValue(urlPattern)
+          : literalDirectoryPrefix(urlPattern);
+    }
+
+    private ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> mapFor(KeyType keyType) {
+      switch (keyType) {
+        case URL:
+          return urls;
+        case PATH:
+          return paths;
+        case URL_PREFIX:
+          return urlPrefixes;
+        default:
+          return pathPrefixes;
+      }
+    }
+
+    private void addIfPresent(
+        ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> map,
+        String key,
+        ImmutableList.Builder<Iterable<StubMapping>> candidates) {
+      if (key == null) {
+        return;
+      }
+
+      ConcurrentSkipListSet<StubMapping> bucket = map.get(key);
+      if (bucket != null) {
+        candidates.add(bucket);
+      }
+    }
+
+    private void addPrefixCandidates(
+        ConcurrentMap<String, ConcurrentSkipListSet<StubMapping>> prefixes,
+        String value,
+        ImmutableList.Builder<Iterable<StubMapping>> candidates) {
+      if (value == null || prefixes.isEmpty()) {
+        return;
+      }
+
+      for (int i = value.indexOf('/'); i != -1; i = value.indexOf('/', i + 1)) {
+        addIfPresent(prefixes, value.substring(0, i + 1), candidates);
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import static wiremock.common.LocalNotifier.notifier;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import wiremock.common.LocalNotifier;
+import wiremock.common.Notifier;
+import wiremock.common.ParsedDocumentCache;
+import wiremock.common.SharedForkJoinPool;
+
+/**
+ * Finds the first candidate, in priority order, that matches. The first {@code threshold}
+ * candidates are tried one at a time as usual. If none of them match, the rest are split into
+ * chunks of that size across a fork-join pool. The earliest match among them wins, so the result
+ * is always the one a sequential scan would have found.
+ *
+ * <p>Chunks stop early once a match earlier in the list has been found, but candidates after the
+ * winning one may still be tried, so matchers must not rely on being called in order.
+ */
+class ParallelStubMatcher {
+
+  private final int threshold;
+
+  ParallelStubMatcher(int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Parallel stub matching threshold must be at least 1");
+    }
+    this.threshold = threshold;
+  }
+
+  Optional<StubMapping> findFirst(
+      Iterable<StubMapping> candidates, Predicate<StubMapping> matcher) {
+    Iterator<StubMapping> iterator = candidates.iterator();
+    for (int i = 0; i < threshold && iterator.hasNext(); i++) {
+      StubMapping candidate = iterator.next();
+      if (matcher.apply(candidate)) {
+        return Optional.of(candidate);
+      }
+    }
+
+    if (!iterator.hasNext()) {
+      return Optional.absent();
+    }
+
+    List<StubMapping> remaining = ImmutableList.copyOf(iterator);
+    AtomicInteger firstMatch = new AtomicInteger(remaining.size());
+    SharedForkJoinPool.get()
+        .invoke(
+            new FindFirstTask(remaining, 0, remaining.size(), matcher, firstMatch, notifier()));
+
+    int position = firstMatch.get();
+    return position < remaining.size()
+        ? Optional.of(remaining.get(position))
+        : Optional.<StubMapping>absent();
+  }
+
+  private class FindFirstTask extends RecursiveAction {
+
+    private static final long serialVersionUID = -3467263281563618914L;
+
+    private final List<StubMapping> candidates;
+    private final int from;
+    private final int to;
+    private final Predicate<StubMapping> matcher;
+    private final AtomicInteger firstMatch;
+    private final Notifier notifier;
+
+    FindFirstTask(
+        List<StubMapping> candidates,
+        int from,
+        int to,
+        Predicate<StubMapping> matcher,
+        AtomicInteger firstMatch,
+        Notifier notifier) {
+      this.candidates = candidates;
+      this.from = from;
+      this.to = to;
+      this.matcher = matcher;
+      this.firstMatch = firstMatch;
+      this.notifier = notifier;
+    }
+
+    @Override
+    protected void compute() {
+      if (from >= firstMatch.get()) {
+        return;
+      }
+
+      if (to - from > threshold) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new FindFirstTask(candidates, from, middle, matcher, firstMatch, notifier),
+            new FindFirstTask(candidates, middle, to, matcher, firstMatch, notifier));
+        return;
+      }
+
+      // Matchers may log, and the notifier is thread local to a worker shared with other tasks
+      Notifier previousNotifier = LocalNotifier.replace(notifier);
+      try (ParsedDocumentCache.Scope ignored = ParsedDocumentCache.openScope()) {
+        for (int i = from; i < to && i < firstMatch.get(); i++) {
+          if (matcher.apply(candidates.get(i))) {
+            recordMatch(i);
+            return;
+          }
+        }
+      } finally {
+        LocalNotifier.set(previousNotifier);
+      }
+    }
+
+    private void recordMatch(int position) {
+      int current = firstMatch.get();
+      while (position < current && !firstMatch.compareAndSet(current, position)) {
+        current = firstMatch.get();
+      }
+    }
+  }
+}
@@ -15,20 +15,21 @@
  */
 package wiremock.stubbing;
 
-import static com.google.common.base.MoreObjects.firstNonNull;
-import static com.google.common.collect.FluentIterable.from;
-
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class Scenarios {
 
   private final ConcurrentHashMap<String, Scenario> scenarioMap = new ConcurrentHashMap<>();
 
+  // Guarded by this. Lets stub add/remove maintain scenarios without rescanning every stub.
+  private final Map<String, ScenarioStubs> stubsByScenario = new HashMap<>();
+
   public Scenario getByName(String name) {
     return scenarioMap.get(name);
   }
@@ -37,67 +38,97 @@ public class Scenarios {
     return ImmutableList.copyOf(scenarioMap.values());
   }
 
-  public void onStubMappingAddedOrUpdated(
-      StubMapping mapping, Iterable<StubMapping> allStubMappings) {
-    if (mapping.isInScenario()) {
-      String scenarioName = mapping.getScenarioName();
-      Scenario scenario =
-          firstNonNull(scenarioMap.get(scenarioName), Scenario.inStartedState(scenarioName));
-      scenario = scenario.withPossibleState(mapping.getNewScenarioState());
-      scenarioMap.put(scenarioName, scenario);
-      cleanUnusedScenarios(allStubMappings);
+  public synchronized void onStubMappingAdded(StubMapping mapping) {
+    if (!mapping.isInScenario()) {
+      return;
     }
-  }
 
-  private void cleanUnusedScenarios(Iterable<StubMapping> remainingStubMappings) {
-    for (String scenarioName : scenarioMap.keySet()) {
-      if (countOtherStubsInScenario(remainingStubMappings, scenarioName) == 0) {
-        scenarioMap.remove(scenarioName);
-      }
+    String scenarioName = mapping.getScenarioName();
+    ScenarioStubs stubs = stubsByScenario.get(scenarioName);
+    if (stubs == null) {
+      stubs = new ScenarioStubs();
+      stubsByScenario.put(scenarioName, stubs);
+      scenarioMap.putIfAbsent(scenarioName, Scenario.inStartedState(scenarioName));
+    }
+
+    stubs.count++;
+    String newState = mapping.getNewScenarioState();
+    if (newState != null && stubs.newStates.add(newState, 1) == 0) {
+      Scenario scenario;
+      do {
+        scenario = scenarioMap.get(scenarioName);
+      } while (!scenarioMap.replace(scenarioName, scenario, scenario.withPossibleState(newState)));
     }
   }
 
-  public void onStubMappingRemoved(
-      StubMapping mapping, Iterable<StubMapping> remainingStubMappings) {
-    if (mapping.isInScenario()) {
-      final String scenarioName = mapping.getScenarioName();
-
-      if (countOtherStubsInScenario(remainingStubMappings, scenarioName) == 0) {
-        scenarioMap.remove(scenarioName);
-      } else {
-        Scenario scenario = scenarioMap.get(scenarioName);
-        scenario = scenario.withoutPossibleState(mapping.getNewScenarioState());
-        scenarioMap.put(scenarioName, scenario);
-      }
+  public synchronized void onStubMappingUpdated(StubMapping existing, StubMapping updated) {
+    // Adding first keeps the scenario, and its current state, alive when the stub stays in it
+    onStubMappingAdded(updated);
+    onStubMappingRemoved(existing);
+  }
+
+  public synchronized void onStubMappingRemoved(StubMapping mapping) {
+    if (!mapping.isInScenario()) {
+      return;
+    }
+
+    String scenarioName = mapping.getScenarioName();
+    ScenarioStubs stubs = stubsByScenario.get(scenarioName);
+    if (stubs == null) {
+      return;
+    }
+
+    if (--stubs.count == 0) {
+      stubsByScenario.remove(scenarioName);
+      scenarioMap.remove(scenarioName);
+      return;
+    }
+
+    String newState = mapping.getNewScenarioState();
+    if (newState != null
+        && stubs.newStates.remove(newState, 1) == 1
+        && !newState.equals(Scenario.STARTED)) {
+      Scenario scenario;
+      do {
+        scenario = scenarioMap.get(scenarioName);
+      } while (!scenarioMap.replace(
+          scenarioName, scenario, scenario.withoutPossibleState(newState)));
     }
   }
 
   public void onStubServed(StubMapping mapping) {
-    if (mapping.isInScenario()) {
-      final String scenarioName = mapping.getScenarioName();
+    if (!mapping.isInScenario() || !mapping.modifiesScenarioState()) {
+      return;
+    }
+
+    String scenarioName = mapping.getScenarioName();
+    String requiredState = mapping.getRequiredScenarioState();
+    while (true) {
       Scenario scenario = scenarioMap.get(scenarioName);
-      if (mapping.modifiesScenarioState()
-          && (mapping.getRequiredScenarioState() == null
-              || scenario.getState().equals(mapping.getRequiredScenarioState()))) {
-        Scenario newScenario = scenario.setState(mapping.getNewScenarioState());
-        scenarioMap.put(scenarioName, newScenario);
+      if (scenario == null
+          || (requiredState != null && !scenario.getState().equals(requiredState))) {
+        return;
+      }
+
+      Scenario newScenario = scenario.setState(mapping.getNewScenarioState());
+      if (scenarioMap.replace(scenarioName, scenario, newScenario)) {
+        return;
       }
     }
   }
 
   public void reset() {
-    scenarioMap.putAll(
-        Maps.transformValues(
-            scenarioMap,
-            new Function<Scenario, Scenario>() {
-              @Override
-              public Scenario apply(Scenario input) {
-                return input.reset();
-              }
-            }));
+    for (String scenarioName : scenarioMap.keySet()) {
+      Scenario scenario;
+      do {
+        scenario = scenarioMap.get(scenarioName);
+      } while (scenario != null
+          && !scenarioMap.replace(scenarioName, scenario, scenario.reset()));
+    }
   }
 
-  public void clear() {
+  public synchronized void clear() {
+    stubsByScenario.clear();
     scenarioMap.clear();
   }
 
@@ -106,16 +137,8 @@ public class Scenarios {
     return mapping.getRequiredScenarioState().equals(currentScenarioState);
   }
 
-  private static int countOtherStubsInScenario(
-      Iterable<StubMapping> remainingStubMappings, final String scenarioName) {
-    return from(remainingStubMappings)
-        .filter(
-            new Predicate<StubMapping>() {
-              @Override
-              public boolean apply(StubMapping input) {
-                return scenarioName.equals(input.getScenarioName());
-              }
-            })
-        .size();
+  private static class ScenarioStubs {
+    int count;
+    final Multiset<String> newStates = HashMultiset.create();
   }
 }
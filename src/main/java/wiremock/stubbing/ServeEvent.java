@@ -36,7 +36,8 @@ public class ServeEvent {
   private final LoggedRequest request;
   private final StubMapping stubMapping;
   private final ResponseDefinition responseDefinition;
-  private final LoggedResponse response;
+  private volatile LoggedResponse response;
+  private volatile Response pendingResponse;
 
   @JsonCreator
   public ServeEvent(
@@ -53,6 +54,16 @@ public class ServeEvent {
     this.response = response;
   }
 
+  private ServeEvent(
+      UUID id,
+      LoggedRequest request,
+      StubMapping stubMapping,
+      ResponseDefinition responseDefinition,
+      Response pendingResponse) {
+    this(id, request, stubMapping, responseDefinition, null, false);
+    this.pendingResponse = pendingResponse;
+  }
+
   public ServeEvent(
       LoggedRequest request, StubMapping stubMapping, ResponseDefinition responseDefinition) {
     this(UUID.randomUUID(), request, stubMapping, responseDefinition, null, false);
@@ -80,6 +91,14 @@ public class ServeEvent {
         id, request, stubMapping, responseDefinition, LoggedResponse.from(response), false);
   }
 
+  /**
+   * Like {@link #complete(Response)}, but the response is only copied, body and all, the first
+   * time it's asked for, so the copy can be made away from the request thread.
+   */
+  public ServeEvent completeLazily(Response response) {
+    return new ServeEvent(id, request, stubMapping, responseDefinition, response);
+  }
+
   @JsonIgnore
   public boolean isNoExactMatch() {
     return !responseDefinition.wasConfigured();
@@ -106,6 +125,11 @@ public class ServeEvent {
   }
 
   public LoggedResponse getResponse() {
+    Response pending = pendingResponse;
+    if (pending != null) {
+      response = LoggedResponse.from(pending);
+      pendingResponse = null;
+    }
     return response;
   }
 
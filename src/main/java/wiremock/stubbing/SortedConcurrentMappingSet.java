@@ -15,26 +15,32 @@
  */
 package wiremock.stubbing;
 
-import static com.google.common.collect.Iterables.removeIf;
-
 import com.google.common.base.Predicate;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import wiremock.http.Request;
 
 public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
 
   private AtomicLong insertionCount;
   private ConcurrentSkipListSet<StubMapping> mappingSet;
+  private StubMappingIndex index;
 
   public SortedConcurrentMappingSet() {
+    this(StubMatchingStrategy.DEFAULT);
+  }
+
+  public SortedConcurrentMappingSet(StubMatchingStrategy matchingStrategy) {
     insertionCount = new AtomicLong();
     mappingSet =
         new ConcurrentSkipListSet<StubMapping>(sortedByPriorityThenReverseInsertionOrder());
+    index = matchingStrategy.newIndex(sortedByPriorityThenReverseInsertionOrder(), mappingSet);
   }
 
-  private Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
+  static Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
     return new Comparator<StubMapping>() {
       public int compare(StubMapping one, StubMapping two) {
         int priorityComparison = one.comparePriorityWith(two);
@@ -52,15 +58,28 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
     return mappingSet.iterator();
   }
 
+  public Iterable<StubMapping> candidatesFor(Request request) {
+    return index.candidatesFor(request);
+  }
+
   public void add(StubMapping mapping) {
     mapping.setInsertionIndex(insertionCount.getAndIncrement());
     mappingSet.add(mapping);
+    index.add(mapping);
+  }
+
+  public void addAll(List<StubMapping> mappings) {
+    long insertionIndex = insertionCount.getAndAdd(mappings.size());
+    for (StubMapping mapping : mappings) {
+      mapping.setInsertionIndex(insertionIndex++);
+    }
+    mappingSet.addAll(mappings);
+    index.addAll(mappings);
   }
 
   public boolean remove(final StubMapping mappingToRemove) {
     boolean removedByUuid =
         removeIf(
-            mappingSet,
             new Predicate<StubMapping>() {
               @Override
               public boolean apply(StubMapping mapping) {
@@ -73,7 +92,6 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
     boolean removedByRequestPattern =
         !removedByUuid
             && removeIf(
-                mappingSet,
                 new Predicate<StubMapping>() {
                   @Override
                   public boolean apply(StubMapping mapping) {
@@ -84,10 +102,24 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
     return removedByUuid || removedByRequestPattern;
   }
 
+  private boolean removeIf(Predicate<StubMapping> predicate) {
+    boolean removed = false;
+    for (StubMapping mapping : mappingSet) {
+      if (predicate.apply(mapping) && mappingSet.remove(mapping)) {
+        index.remove(mapping);
+        removed = true;
+      }
+    }
+
+    return removed;
+  }
+
   public boolean replace(StubMapping existingStubMapping, StubMapping newStubMapping) {
 
     if (mappingSet.remove(existingStubMapping)) {
+      index.remove(existingStubMapping);
       mappingSet.add(newStubMapping);
+      index.add(newStubMapping);
       return true;
     }
     return false;
@@ -95,6 +127,7 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
 
   public void clear() {
     mappingSet.clear();
+    index.clear();
   }
 
   @Override
@@ -27,6 +27,8 @@ public interface StubMappings {
 
   void addMapping(StubMapping mapping);
 
+  void addMappings(List<StubMapping> mappings);
+
   void removeMapping(StubMapping mapping);
 
   void editMapping(StubMapping stubMapping);
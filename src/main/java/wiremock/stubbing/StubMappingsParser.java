@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import static wiremock.common.Exceptions.throwUnchecked;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import wiremock.common.Json;
+import wiremock.common.SharedForkJoinPool;
+
+/**
+ * Reads many stub mappings from one document. Accepts a JSON array of mappings, an object with a
+ * {@code mappings} array (as returned by {@code GET /__admin/mappings}) or newline delimited
+ * mappings. The document is split into one tree per mapping in a single pass and the trees are
+ * then bound to {@link StubMapping}s in parallel.
+ */
+public class StubMappingsParser {
+
+  private static final int PARALLEL_THRESHOLD = 256;
+
+  private StubMappingsParser() {}
+
+  public static List<StubMapping> parse(byte[] json) {
+    List<JsonNode> nodes = split(json);
+    StubMapping[] stubMappings = new StubMapping[nodes.size()];
+    if (nodes.size() <= PARALLEL_THRESHOLD) {
+      new BindTask(nodes, stubMappings, 0, nodes.size()).compute();
+    } else {
+      SharedForkJoinPool.get().invoke(new BindTask(nodes, stubMappings, 0, nodes.size()));
+    }
+
+    return Arrays.asList(stubMappings);
+  }
+
+  private static List<JsonNode> split(byte[] json) {
+    ObjectMapper mapper = Json.getObjectMapper();
+    List<JsonNode> nodes = new ArrayList<>();
+    try (JsonParser parser = mapper.getFactory().createParser(json)) {
+      for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+        if (token == JsonToken.START_ARRAY) {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            nodes.add(parser.<JsonNode>readValueAsTree());
+          }
+        } else {
+          JsonNode node = parser.readValueAsTree();
+          JsonNode mappings = node.get("mappings");
+          if (mappings != null && mappings.isArray() && !node.has("request")) {
+            for (JsonNode mapping : mappings) {
+              nodes.add(mapping);
+            }
+          } else {
+            nodes.add(node);
+          }
+        }
+      }
+    } catch (IOException ioe) {
+      throwUnchecked(ioe);
+      return null;
+    }
+
+    return nodes;
+  }
+
+  private static class BindTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 2934458912375048106L;
+
+    private final List<JsonNode> nodes;
+    private final StubMapping[] stubMappings;
+    private final int from;
+    private final int to;
+
+    BindTask(List<JsonNode> nodes, StubMapping[] stubMappings, int from, int to) {
+      this.nodes = nodes;
+      this.stubMappings = stubMappings;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > PARALLEL_THRESHOLD) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new BindTask(nodes, stubMappings, from, middle),
+            new BindTask(nodes, stubMappings, middle, to));
+        return;
+      }
+
+      for (int i = from; i < to; i++) {
+        stubMappings[i] = Json.read(nodes.get(i), StubMapping.class);
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import java.util.Comparator;
+
+public enum StubMatchingStrategy {
+  LINEAR_SCAN {
+    @Override
+    StubMappingIndex newIndex(
+        Comparator<StubMapping> comparator, Iterable<StubMapping> allMappings) {
+      return new LinearScanIndex(allMappings);
+    }
+  },
+  METHOD_AND_URL_INDEX {
+    @Override
+    StubMappingIndex newIndex(
+        Comparator<StubMapping> comparator, Iterable<StubMapping> allMappings) {
+      return new MethodAndUrlIndex(comparator);
+    }
+  },
+  URL_PATH_TREE {
+    @Override
+    StubMappingIndex newIndex(
+        Comparator<StubMapping> comparator, Iterable<StubMapping> allMappings) {
+      return new UrlPathTreeIndex(comparator);
+    }
+  };
+
+  public static final StubMatchingStrategy DEFAULT = METHOD_AND_URL_INDEX;
+
+  /**
+   * Builds the index for a mapping set. The set's own sorted mappings are passed in so that an index
+   * which doesn't narrow the candidates can scan them rather than keep a copy.
+   */
+  abstract StubMappingIndex newIndex(
+      Comparator<StubMapping> comparator, Iterable<StubMapping> allMappings);
+
+  public static StubMatchingStrategy fromString(String value) {
+    return valueOf(value.trim().toUpperCase().replace('-', '_'));
+  }
+}
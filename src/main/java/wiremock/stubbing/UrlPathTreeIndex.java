@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.stubbing;
+
+import static wiremock.stubbing.IndexKeys.isCustom;
+import static wiremock.stubbing.IndexKeys.isIndexableUrlPattern;
+import static wiremock.stubbing.IndexKeys.isPathPattern;
+import static wiremock.stubbing.IndexKeys.literalDirectoryPrefix;
+import static wiremock.stubbing.IndexKeys.literalEqualToValue;
+import static wiremock.stubbing.IndexKeys.safelyGetPath;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import wiremock.http.Request;
+import wiremock.matching.RequestPattern;
+import wiremock.matching.UrlPattern;
+
+/**
+ * A tree of URL path segments. Literal URLs and paths are stored on the node reached by their last
+ * segment. Regex patterns are stored on the node reached by their literal directory prefix and act
+ * as filters for every path passing through that node. Looking up a request visits at most one
+ * node per path segment. Writes are serialised, reads never block.
+ */
+class UrlPathTreeIndex implements StubMappingIndex {
+
+  private final Comparator<StubMapping> comparator;
+  private final ConcurrentSkipListSet<StubMapping> all;
+  private volatile Node root;
+
+  UrlPathTreeIndex(Comparator<StubMapping> comparator) {
+    this.comparator = comparator;
+    this.all = new ConcurrentSkipListSet<>(comparator);
+    this.root = new Node();
+  }
+
+  @Override
+  public synchronized void add(StubMapping mapping) {
+    Location location = locationOf(mapping.getRequest());
+    Node node = root;
+    for (String segment : location.segments) {
+      Node child = node.children.get(segment);
+      if (child == null) {
+        child = new Node();
+        node.children.put(segment, child);
+      }
+      node = child;
+    }
+
+    (location.exact ? node.exact : node.filtered).add(mapping);
+    all.add(mapping);
+  }
+
+  @Override
+  public synchronized void addAll(Iterable<StubMapping> mappings) {
+    for (StubMapping mapping : mappings) {
+      add(mapping);
+    }
+  }
+
+  @Override
+  public synchronized void remove(StubMapping mapping) {
+    Location location = locationOf(mapping.getRequest());
+    List<Node> visited = new ArrayList<>();
+    Node node = root;
+    for (String segment : location.segments) {
+      visited.add(node);
+      node = node.children.get(segment);
+      if (node == null) {
+        all.remove(mapping);
+        return;
+      }
+    }
+
+    (location.exact ? node.exact : node.filtered).remove(mapping);
+    all.remove(mapping);
+
+    for (int i = location.segments.size() - 1; i >= 0 && node.isEmpty(); i--) {
+      Node parent = visited.get(i);
+      parent.children.remove(location.segments.get(i));
+      node = parent;
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    root = new Node();
+    all.clear();
+  }
+
+  @Override
+  public Iterable<StubMapping> candidatesFor(Request request) {
+    String url = request.getUrl();
+    String path = safelyGetPath(url);
+    if (path == null || !url.startsWith(path)) {
+      return all;
+    }
+
+    ImmutableList.Builder<Iterable<StubMapping>> candidates = ImmutableList.builder();
+    Node node = root;
+    candidates.add(node.filtered);
+    int start = 0;
+    while (node != null) {
+      int end = path.indexOf('/', start);
+      String segment = path.substring(start, end == -1 ? path.length() : end);
+      node = node.children.get(segment);
+      if (node != null) {
+        candidates.add(node.filtered);
+        if (end == -1) {
+          candidates.add(node.exact);
+          break;
+        }
+      }
+      start = end + 1;
+    }
+
+    return Iterables.mergeSorted(candidates.build(), comparator);
+  }
+
+  private static Location locationOf(RequestPattern requestPattern) {
+    UrlPattern urlPattern = requestPattern.getUrlMatcher();
+    if (isCustom(requestPattern) || !isIndexableUrlPattern(urlPattern)) {
+      return Location.ROOT;
+    }
+
+    String literal = literalEqualToValue(urlPattern);
+    if (literal != null) {
+      String path = isPathPattern(urlPattern) ? literal : safelyGetPath(literal);
+      return path != null ? new Location(segmentsOf(path), true) : Location.ROOT;
+    }
+
+    String prefix = literalDirectoryPrefix(urlPattern);
+    if (prefix != null) {
+      return new Location(segmentsOf(prefix.substring(0, prefix.length() - 1)), false);
+    }
+
+    return Location.ROOT;
+  }
+
+  private static List<String> segmentsOf(String path) {
+    List<String> segments = new ArrayList<>();
+    int start = 0;
+    int end;
+    while ((end = path.indexOf('/', start)) != -1) {
+      segments.add(path.substring(start, end));
+      start = end + 1;
+    }
+    segments.add(path.substring(start));
+    return segments;
+  }
+
+  private static class Location {
+
+    static final Location ROOT = new Location(ImmutableList.<String>of(), false);
+
+    final List<String> segments;
+    final boolean exact;
+
+    Location(List<String> segments, boolean exact) {
+      this.segments = segments;
+      this.exact = exact;
+    }
+  }
+
+  private class Node {
+
+    final ConcurrentMap<String, Node> children = new ConcurrentHashMap<>();
+    final ConcurrentSkipListSet<StubMapping> exact = new ConcurrentSkipListSet<>(comparator);
+    final ConcurrentSkipListSet<StubMapping> filtered = new ConcurrentSkipListSet<>(comparator);
+
+    boolean isEmpty() {
+      return children.isEmpty() && exact.isEmpty() && filtered.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import static com.google.common.base.Preconditions.checkState;
+import static wiremock.common.Exceptions.throwUnchecked;
+
+import com.google.common.base.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import wiremock.common.AsynchronousJournalSettings;
+import wiremock.common.JournalOverflowPolicy;
+import wiremock.common.Notifier;
+import wiremock.matching.RequestPattern;
+import wiremock.stubbing.ServeEvent;
+
+/**
+ * Hands serve events to a bounded queue and journals them on a background thread, so requests
+ * don't wait for the journal. Queries go straight to the underlying journal and so may not yet
+ * include the most recent events. Call {@link #flush()} first when that matters, e.g. before
+ * verifying.
+ */
+public class AsynchronousRequestJournal implements BackgroundRequestJournal {
+
+  private static final int MAX_BATCH_SIZE = 512;
+  private static final int SAMPLE_RATE = 10;
+  private static final long FLUSH_TIMEOUT_MILLIS = 30000;
+
+  private final RequestJournal requestJournal;
+  private final BlockingQueue<PendingEvent> pendingEvents;
+  private final int queueCapacity;
+  private final JournalOverflowPolicy overflowPolicy;
+  private final Notifier notifier;
+
+  private final Object journalLock = new Object();
+  private volatile int generation = 0;
+
+  private final Object lifecycleLock = new Object();
+  private volatile Thread consumer;
+  private volatile boolean running;
+
+  private final AtomicLong enqueuedCount = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final AtomicLong sampleCount = new AtomicLong();
+  private long journaledCount = 0;
+
+  public AsynchronousRequestJournal(
+      RequestJournal requestJournal, AsynchronousJournalSettings settings, Notifier notifier) {
+    if (settings.getQueueSize() < 1) {
+      throw new IllegalArgumentException("Request journal queue size must be at least 1");
+    }
+    this.requestJournal = requestJournal;
+    this.pendingEvents = new ArrayBlockingQueue<>(settings.getQueueSize());
+    this.queueCapacity = settings.getQueueSize();
+    this.overflowPolicy = settings.getOverflowPolicy();
+    this.notifier = notifier;
+
+    start();
+  }
+
+  @Override
+  public void start() {
+    synchronized (lifecycleLock) {
+      if (consumer != null && consumer.isAlive()) {
+        return;
+      }
+
+      if (requestJournal instanceof BackgroundRequestJournal) {
+        ((BackgroundRequestJournal) requestJournal).start();
+      }
+
+      running = true;
+      consumer =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  journalBatches();
+                }
+              },
+              "wiremock-journal-consumer");
+      consumer.setDaemon(true);
+      consumer.start();
+    }
+  }
+
+  /**
+   * Journals the serve events still queued, then stops the consumer and the underlying journal.
+   */
+  @Override
+  public void stop() {
+    synchronized (lifecycleLock) {
+      if (consumer == null) {
+        return;
+      }
+
+      running = false;
+      consumer.interrupt();
+      try {
+        consumer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      consumer = null;
+
+      if (requestJournal instanceof BackgroundRequestJournal) {
+        ((BackgroundRequestJournal) requestJournal).stop();
+      }
+    }
+  }
+
+  @Override
+  public void requestReceived(ServeEvent serveEvent) {
+    if (enqueue(new PendingEvent(generation, serveEvent))) {
+      enqueuedCount.incrementAndGet();
+    } else {
+      droppedCount.incrementAndGet();
+    }
+  }
+
+  private boolean enqueue(PendingEvent pendingEvent) {
+    switch (overflowPolicy) {
+      case BLOCK:
+        try {
+          pendingEvents.put(pendingEvent);
+          return true;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      case SAMPLE:
+        if (pendingEvents.size() >= queueCapacity / 2
+            && sampleCount.incrementAndGet() % SAMPLE_RATE != 0) {
+          return false;
+        }
+        return pendingEvents.offer(pendingEvent);
+      default:
+        return pendingEvents.offer(pendingEvent);
+    }
+  }
+
+  @Override
+  public int countRequestsMatching(RequestPattern requestPattern) {
+    return requestJournal.countRequestsMatching(requestPattern);
+  }
+
+  @Override
+  public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+    return requestJournal.getRequestsMatching(requestPattern);
+  }
+
+  @Override
+  public List<ServeEvent> getAllServeEvents() {
+    return requestJournal.getAllServeEvents();
+  }
+
+  @Override
+  public Optional<ServeEvent> getServeEvent(UUID id) {
+    return requestJournal.getServeEvent(id);
+  }
+
+  @Override
+  public List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId) {
+    return requestJournal.getServeEventsForStubMapping(stubMappingId);
+  }
+
+  @Override
+  public void reset() {
+    synchronized (journalLock) {
+      generation++;
+      requestJournal.reset();
+    }
+  }
+
+  /**
+   * Blocks until every serve event queued before this call has been journaled, then flushes the
+   * underlying journal. Fails if that takes more than 30 seconds, or if the consumer has stopped
+   * with events still queued.
+   */
+  @Override
+  public void flush() {
+    long target = enqueuedCount.get();
+    long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+    synchronized (this) {
+      while (journaledCount < target) {
+        Thread currentConsumer = consumer;
+        checkState(
+            currentConsumer != null && currentConsumer.isAlive(),
+            "The request journal consumer has stopped with serve events still queued");
+        long remaining = deadline - System.currentTimeMillis();
+        checkState(remaining > 0, "Timed out waiting for queued serve events to be journaled");
+        try {
+          wait(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throwUnchecked(e);
+        }
+      }
+    }
+
+    requestJournal.flush();
+  }
+
+  @Override
+  public JournalQueueStats getQueueStats() {
+    long journaled;
+    synchronized (this) {
+      journaled = journaledCount;
+    }
+
+    return new JournalQueueStats(
+        true,
+        pendingEvents.size(),
+        queueCapacity,
+        enqueuedCount.get(),
+        journaled,
+        droppedCount.get());
+  }
+
+  @Override
+  public boolean capturesResponsesInBackground() {
+    return true;
+  }
+
+  private void journalBatches() {
+    List<PendingEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    try {
+      while (running || !pendingEvents.isEmpty()) {
+        try {
+          batch.add(pendingEvents.take());
+        } catch (InterruptedException e) {
+          // Stopping, so whatever is still queued is journaled before exiting
+        }
+        pendingEvents.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+        if (batch.isEmpty()) {
+          continue;
+        }
+
+        synchronized (journalLock) {
+          journal(batch);
+        }
+
+        synchronized (this) {
+          journaledCount += batch.size();
+          notifyAll();
+        }
+        batch.clear();
+      }
+    } finally {
+      // Lets a waiting flush see that the consumer has gone
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+  }
+
+  private void journal(List<PendingEvent> batch) {
+    for (PendingEvent pendingEvent : batch) {
+      // Events received before a reset are discarded along with the rest of the journal
+      if (pendingEvent.generation != generation) {
+        continue;
+      }
+
+      try {
+        // Captures the response body here rather than on the request thread
+        pendingEvent.serveEvent.getResponse();
+        requestJournal.requestReceived(pendingEvent.serveEvent);
+      } catch (RuntimeException e) {
+        notifier.error("Failed to journal serve event " + pendingEvent.serveEvent.getId(), e);
+      }
+    }
+  }
+
+  private static class PendingEvent {
+
+    final int generation;
+    final ServeEvent serveEvent;
+
+    PendingEvent(int generation, ServeEvent serveEvent) {
+      this.generation = generation;
+      this.serveEvent = serveEvent;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import wiremock.stubbing.ServeEvent;
+
+/**
+ * A request journal that does some of its work on a background thread. The thread is started when
+ * the journal is created, and is stopped and restarted along with the server.
+ */
+public interface BackgroundRequestJournal extends RequestJournal {
+
+  /** Restarts the background thread after {@link #stop()}. Does nothing if it's running. */
+  void start();
+
+  /** Finishes the work already handed to the background thread, then stops it. */
+  void stop();
+
+  JournalQueueStats getQueueStats();
+
+  /**
+   * Whether serve events can be handed over before their response has been copied, as made by
+   * {@link ServeEvent#completeLazily}, because the copy is taken on the background thread.
+   */
+  boolean capturesResponsesInBackground();
+}
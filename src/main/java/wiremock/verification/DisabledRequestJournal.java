@@ -43,9 +43,17 @@ public class DisabledRequestJournal implements RequestJournal {
     throw new RequestJournalDisabledException();
   }
 
+  @Override
+  public List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId) {
+    throw new RequestJournalDisabledException();
+  }
+
   @Override
   public void reset() {}
 
   @Override
   public void requestReceived(ServeEvent serveEvent) {}
+
+  @Override
+  public void flush() {}
 }
@@ -19,18 +19,19 @@ import static com.google.common.collect.Iterables.*;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Iterables.tryFind;
 import static wiremock.matching.RequestPattern.thatMatch;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import wiremock.http.Request;
 import wiremock.matching.RequestMatcherExtension;
 import wiremock.matching.RequestPattern;
@@ -38,7 +39,9 @@ import wiremock.stubbing.ServeEvent;
 
 public class InMemoryRequestJournal implements RequestJournal {
 
-  private final Queue<ServeEvent> serveEvents = new ConcurrentLinkedQueue<ServeEvent>();
+  private final Queue<JournalEntry> entries = new ConcurrentLinkedQueue<JournalEntry>();
+  private final AtomicLong nextSequence = new AtomicLong();
+  private final RequestJournalIndex index = new RequestJournalIndex();
 
   private final Optional<Integer> maxEntries;
 
@@ -52,12 +55,12 @@ public class InMemoryRequestJournal implements RequestJournal {
 
   @Override
   public int countRequestsMatching(RequestPattern requestPattern) {
-    return size(filter(getRequests(), thatMatch(requestPattern)));
+    return size(filter(getRequests(requestPattern), thatMatch(requestPattern)));
   }
 
   @Override
   public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
-    return ImmutableList.copyOf(filter(getRequests(), thatMatch(requestPattern)));
+    return ImmutableList.copyOf(filter(getRequests(requestPattern), thatMatch(requestPattern)));
   }
 
   private Predicate<Request> matchedBy(final RequestPattern requestPattern) {
@@ -71,46 +74,62 @@ public class InMemoryRequestJournal implements RequestJournal {
 
   @Override
   public void requestReceived(ServeEvent serveEvent) {
-    serveEvents.add(serveEvent);
+    JournalEntry entry = new JournalEntry(nextSequence.getAndIncrement(), serveEvent);
+    index.add(entry);
+    entries.add(entry);
     removeOldEntries();
   }
 
   @Override
   public List<ServeEvent> getAllServeEvents() {
-    return ImmutableList.copyOf(serveEvents).reverse();
+    return ImmutableList.copyOf(getServeEvents()).reverse();
   }
 
   @Override
-  public Optional<ServeEvent> getServeEvent(final UUID id) {
-    return tryFind(
-        serveEvents,
-        new Predicate<ServeEvent>() {
-          @Override
-          public boolean apply(ServeEvent input) {
-            return input.getId().equals(id);
-          }
-        });
+  public Optional<ServeEvent> getServeEvent(UUID id) {
+    return index.get(id);
+  }
+
+  @Override
+  public List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId) {
+    return ImmutableList.copyOf(index.forStubMapping(stubMappingId));
   }
 
   @Override
   public void reset() {
-    serveEvents.clear();
+    entries.clear();
+    index.clear(nextSequence.get());
   }
 
-  private Iterable<LoggedRequest> getRequests() {
+  @Override
+  public void flush() {
+    // Serve events are journaled as they're received
+  }
+
+  private Iterable<ServeEvent> getServeEvents() {
     return transform(
-        serveEvents,
-        new Function<ServeEvent, LoggedRequest>() {
-          public LoggedRequest apply(ServeEvent input) {
-            return input.getRequest();
+        entries,
+        new Function<JournalEntry, ServeEvent>() {
+          public ServeEvent apply(JournalEntry input) {
+            return input.serveEvent;
           }
         });
   }
 
+  private Iterable<LoggedRequest> getRequests(RequestPattern requestPattern) {
+    Optional<Collection<ServeEvent>> candidates = index.candidatesFor(requestPattern);
+    return transform(
+        candidates.isPresent() ? candidates.get() : getServeEvents(),
+        ServeEvent.TO_LOGGED_REQUEST);
+  }
+
   private void removeOldEntries() {
     if (maxEntries.isPresent()) {
-      while (serveEvents.size() > maxEntries.get()) {
-        serveEvents.poll();
+      while (entries.size() > maxEntries.get()) {
+        JournalEntry evicted = entries.poll();
+        if (evicted != null) {
+          index.remove(evicted);
+        }
       }
     }
   }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class JournalQueueStats {
+
+  private final boolean asynchronous;
+  private final int queueDepth;
+  private final int queueCapacity;
+  private final long enqueued;
+  private final long journaled;
+  private final long dropped;
+
+  @JsonCreator
+  public JournalQueueStats(
+      @JsonProperty("asynchronous") boolean asynchronous,
+      @JsonProperty("queueDepth") int queueDepth,
+      @JsonProperty("queueCapacity") int queueCapacity,
+      @JsonProperty("enqueued") long enqueued,
+      @JsonProperty("journaled") long journaled,
+      @JsonProperty("dropped") long dropped) {
+    this.asynchronous = asynchronous;
+    this.queueDepth = queueDepth;
+    this.queueCapacity = queueCapacity;
+    this.enqueued = enqueued;
+    this.journaled = journaled;
+    this.dropped = dropped;
+  }
+
+  public static JournalQueueStats synchronous() {
+    return new JournalQueueStats(false, 0, 0, 0, 0, 0);
+  }
+
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public long getEnqueued() {
+    return enqueued;
+  }
+
+  public long getJournaled() {
+    return journaled;
+  }
+
+  public long getDropped() {
+    return dropped;
+  }
+}
@@ -23,7 +23,6 @@ import static wiremock.common.Encoding.encodeBase64;
 import static wiremock.common.Strings.stringFromBytes;
 import static wiremock.common.Urls.safelyCreateURL;
 import static wiremock.common.Urls.splitQuery;
-import static wiremock.http.HttpHeaders.copyOf;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -41,6 +40,8 @@ import java.util.Map;
 import java.util.Set;
 import wiremock.common.Dates;
 import wiremock.common.Json;
+import wiremock.common.OffHeapBytes;
+import wiremock.common.ParsedDocumentCache;
 import wiremock.http.*;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -57,22 +58,34 @@ public class LoggedRequest implements Request {
   private final Map<String, Cookie> cookies;
   private final Map<String, QueryParameter> queryParams;
   private final byte[] body;
+  private final OffHeapBytes offHeapBody;
   private final boolean isBrowserProxyRequest;
   private final Date loggedDate;
   private final Collection<Part> multiparts;
+  private final Request originalRequest;
 
+  /**
+   * Takes an immutable snapshot of the request. A request that is already a snapshot is returned
+   * as it is, so a request is only copied once however many stages it passes through.
+   */
   public static LoggedRequest createFrom(Request request) {
+    if (request instanceof LoggedRequest) {
+      return (LoggedRequest) request;
+    }
+
+    // Headers are immutable, so they're shared rather than copied
     return new LoggedRequest(
         request.getUrl(),
         request.getAbsoluteUrl(),
         request.getMethod(),
         request.getClientIp(),
-        copyOf(request.getHeaders()),
+        request.getHeaders(),
         ImmutableMap.copyOf(request.getCookies()),
         request.isBrowserProxyRequest(),
         new Date(),
         request.getBody(),
-        request.getParts());
+        request.getParts(),
+        request.getOriginalRequest().orNull());
   }
 
   @JsonCreator
@@ -112,6 +125,32 @@ public class LoggedRequest implements Request {
       Date loggedDate,
       byte[] body,
       Collection<Part> multiparts) {
+    this(
+        url,
+        absoluteUrl,
+        method,
+        clientIp,
+        headers,
+        cookies,
+        isBrowserProxyRequest,
+        loggedDate,
+        body,
+        multiparts,
+        null);
+  }
+
+  private LoggedRequest(
+      String url,
+      String absoluteUrl,
+      RequestMethod method,
+      String clientIp,
+      HttpHeaders headers,
+      Map<String, Cookie> cookies,
+      boolean isBrowserProxyRequest,
+      Date loggedDate,
+      byte[] body,
+      Collection<Part> multiparts,
+      Request originalRequest) {
     this.url = url;
 
     this.absoluteUrl = absoluteUrl;
@@ -129,12 +168,66 @@ public class LoggedRequest implements Request {
     this.clientIp = clientIp;
     this.method = method;
     this.body = body;
+    this.offHeapBody = null;
     this.headers = headers;
     this.cookies = cookies;
-    this.queryParams = splitQuery(URI.create(url));
+    this.queryParams = ImmutableMap.copyOf(splitQuery(URI.create(url)));
     this.isBrowserProxyRequest = isBrowserProxyRequest;
     this.loggedDate = loggedDate;
     this.multiparts = multiparts;
+    this.originalRequest = originalRequest;
+  }
+
+  private LoggedRequest(LoggedRequest request, byte[] body, OffHeapBytes offHeapBody) {
+    this.scheme = request.scheme;
+    this.host = request.host;
+    this.port = request.port;
+    this.url = request.url;
+    this.absoluteUrl = request.absoluteUrl;
+    this.clientIp = request.clientIp;
+    this.method = request.method;
+    this.body = body;
+    this.offHeapBody = offHeapBody;
+    this.headers = request.headers;
+    this.cookies = request.cookies;
+    this.queryParams = request.queryParams;
+    this.isBrowserProxyRequest = request.isBrowserProxyRequest;
+    this.loggedDate = request.loggedDate;
+    this.multiparts = request.multiparts;
+    this.originalRequest = request.originalRequest;
+  }
+
+  /**
+   * Returns a copy holding its body outside the heap, if the body is larger than the threshold.
+   * The body is then copied back onto the heap each time it's read, until it's released.
+   */
+  public LoggedRequest withBodyOffHeapAbove(int thresholdBytes) {
+    if (body == null || body.length <= thresholdBytes) {
+      return this;
+    }
+
+    return new LoggedRequest(this, null, OffHeapBytes.copyOf(body));
+  }
+
+  /** Returns a copy holding its body on the heap, which stays readable after it's released. */
+  public LoggedRequest withBodyOnHeap() {
+    if (offHeapBody == null) {
+      return this;
+    }
+
+    return new LoggedRequest(this, offHeapBody.toByteArray(), null);
+  }
+
+  /** Frees a body held outside the heap. It can't be read from this request afterwards. */
+  public void releaseOffHeapBody() {
+    if (offHeapBody != null) {
+      offHeapBody.release();
+    }
+  }
+
+  /** Whether there's a body, without copying it back onto the heap if it's held outside. */
+  public boolean hasBody() {
+    return body != null || offHeapBody != null;
   }
 
   @Override
@@ -216,19 +309,23 @@ public class LoggedRequest implements Request {
 
   @Override
   public byte[] getBody() {
-    return body;
+    return offHeapBody != null ? offHeapBody.toByteArray() : body;
   }
 
   @Override
   @JsonProperty("body")
   public String getBodyAsString() {
-    return stringFromBytes(body, encodingFromContentTypeHeaderOrUtf8());
+    if (offHeapBody != null) {
+      return stringFromBytes(getBody(), encodingFromContentTypeHeaderOrUtf8());
+    }
+
+    return ParsedDocumentCache.stringFor(body, encodingFromContentTypeHeaderOrUtf8());
   }
 
   @Override
   @JsonProperty("bodyAsBase64")
   public String getBodyAsBase64() {
-    return encodeBase64(body);
+    return encodeBase64(getBody());
   }
 
   @Override
@@ -259,7 +356,7 @@ public class LoggedRequest implements Request {
   @JsonIgnore
   @Override
   public Optional<Request> getOriginalRequest() {
-    return Optional.absent();
+    return Optional.fromNullable(originalRequest);
   }
 
   public Date getLoggedDate() {
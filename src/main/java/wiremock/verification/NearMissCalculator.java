@@ -15,19 +15,28 @@
  */
 package wiremock.verification;
 
-import static com.google.common.collect.FluentIterable.from;
-import static java.lang.Math.min;
-
-import com.google.common.base.Function;
-import com.google.common.collect.FluentIterable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+import wiremock.common.ParsedDocumentCache;
+import wiremock.common.SharedForkJoinPool;
 import wiremock.matching.MatchResult;
 import wiremock.matching.RequestPattern;
 import wiremock.stubbing.ServeEvent;
 import wiremock.stubbing.StubMapping;
 import wiremock.stubbing.StubMappings;
 
+/**
+ * Finds the closest stubs to a request, or the closest journaled requests to a pattern.
+ *
+ * <p>Only the best {@link #NEAR_MISS_COUNT} are kept, in a bounded heap. Once the heap is full,
+ * each candidate's distance is worked out only as far as needed to show it can't beat the worst
+ * one kept, so the cheap URL and method distances often rule a candidate out before any body
+ * distance is computed. Large candidate lists are split across a fork-join pool.
+ */
 public class NearMissCalculator {
 
   public static final int NEAR_MISS_COUNT = 3;
@@ -39,6 +48,8 @@ public class NearMissCalculator {
         }
       };
 
+  private static final int PARALLEL_THRESHOLD = 2000;
+
   private final StubMappings stubMappings;
   private final RequestJournal requestJournal;
 
@@ -48,38 +59,154 @@ public class NearMissCalculator {
   }
 
   public List<NearMiss> findNearestTo(final LoggedRequest request) {
-    List<StubMapping> allMappings = stubMappings.getAll();
-
-    return sortAndTruncate(
-        from(allMappings)
-            .transform(
-                new Function<StubMapping, NearMiss>() {
-                  public NearMiss apply(StubMapping stubMapping) {
-                    MatchResult matchResult = stubMapping.getRequest().match(request);
-                    return new NearMiss(request, stubMapping, matchResult);
-                  }
-                }),
-        allMappings.size());
+    return findNearest(
+        stubMappings.getAll(),
+        new Candidates<StubMapping>() {
+          @Override
+          MatchResult match(StubMapping stubMapping) {
+            return stubMapping.getRequest().match(request);
+          }
+
+          @Override
+          NearMiss nearMiss(StubMapping stubMapping, MatchResult matchResult) {
+            return new NearMiss(request, stubMapping, matchResult);
+          }
+        });
   }
 
   public List<NearMiss> findNearestTo(final RequestPattern requestPattern) {
-    List<ServeEvent> serveEvents = requestJournal.getAllServeEvents();
-    return sortAndTruncate(
-        from(serveEvents)
-            .transform(
-                new Function<ServeEvent, NearMiss>() {
-                  public NearMiss apply(ServeEvent serveEvent) {
-                    MatchResult matchResult = requestPattern.match(serveEvent.getRequest());
-                    return new NearMiss(serveEvent.getRequest(), requestPattern, matchResult);
-                  }
-                }),
-        serveEvents.size());
+    return findNearest(
+        requestJournal.getAllServeEvents(),
+        new Candidates<ServeEvent>() {
+          @Override
+          MatchResult match(ServeEvent serveEvent) {
+            return requestPattern.match(serveEvent.getRequest());
+          }
+
+          @Override
+          NearMiss nearMiss(ServeEvent serveEvent, MatchResult matchResult) {
+            return new NearMiss(serveEvent.getRequest(), requestPattern, matchResult);
+          }
+        });
   }
 
-  private static List<NearMiss> sortAndTruncate(
-      FluentIterable<NearMiss> nearMisses, int originalSize) {
-    return nearMisses
-        .toSortedList(NEAR_MISS_ASCENDING_COMPARATOR)
-        .subList(0, min(NEAR_MISS_COUNT, originalSize));
+  private static <T> List<NearMiss> findNearest(List<T> all, Candidates<T> candidates) {
+    Nearest<T> nearest =
+        all.size() > PARALLEL_THRESHOLD
+            ? SharedForkJoinPool.get().invoke(new FindNearestTask<>(all, 0, all.size(), candidates))
+            : findNearest(all, 0, all.size(), candidates);
+
+    List<Scored<T>> sorted = new ArrayList<>(nearest.heap);
+    Collections.sort(sorted, Collections.reverseOrder(nearest.heap.comparator()));
+
+    List<NearMiss> nearMisses = new ArrayList<>(sorted.size());
+    for (Scored<T> scored : sorted) {
+      nearMisses.add(
+          candidates.nearMiss(scored.candidate, MatchResult.partialMatch(scored.distance)));
+    }
+
+    return nearMisses;
+  }
+
+  private static <T> Nearest<T> findNearest(
+      List<T> all, int from, int to, Candidates<T> candidates) {
+    Nearest<T> nearest = new Nearest<>();
+    // Parses a request body once for all the stubs, including on fork-join workers
+    try (ParsedDocumentCache.Scope ignored = ParsedDocumentCache.openScope()) {
+      for (int i = from; i < to; i++) {
+        T candidate = all.get(i);
+        double distance = candidates.match(candidate).getDistanceUpTo(nearest.worstDistance());
+        nearest.offer(new Scored<>(i, candidate, distance));
+      }
+    }
+
+    return nearest;
+  }
+
+  private abstract static class Candidates<T> {
+
+    abstract MatchResult match(T candidate);
+
+    abstract NearMiss nearMiss(T candidate, MatchResult matchResult);
+  }
+
+  private static class Scored<T> {
+
+    final int position;
+    final T candidate;
+    final double distance;
+
+    Scored(int position, T candidate, double distance) {
+      this.position = position;
+      this.candidate = candidate;
+      this.distance = distance;
+    }
+  }
+
+  /**
+   * The closest candidates seen so far, worst first. Equal distances are ordered by position, so
+   * the result is the same as a stable sort of every candidate.
+   */
+  private static class Nearest<T> {
+
+    final PriorityQueue<Scored<T>> heap =
+        new PriorityQueue<>(
+            NEAR_MISS_COUNT + 1,
+            new Comparator<Scored<T>>() {
+              @Override
+              public int compare(Scored<T> one, Scored<T> two) {
+                int byDistance = Double.compare(two.distance, one.distance);
+                return byDistance != 0 ? byDistance : Integer.compare(two.position, one.position);
+              }
+            });
+
+    double worstDistance() {
+      return heap.size() < NEAR_MISS_COUNT ? Double.POSITIVE_INFINITY : heap.peek().distance;
+    }
+
+    void offer(Scored<T> scored) {
+      heap.add(scored);
+      if (heap.size() > NEAR_MISS_COUNT) {
+        heap.poll();
+      }
+    }
+
+    void addAll(Nearest<T> other) {
+      for (Scored<T> scored : other.heap) {
+        offer(scored);
+      }
+    }
+  }
+
+  private static class FindNearestTask<T> extends RecursiveTask<Nearest<T>> {
+
+    private static final long serialVersionUID = 6074532287916383105L;
+
+    private final List<T> all;
+    private final int from;
+    private final int to;
+    private final Candidates<T> candidates;
+
+    FindNearestTask(List<T> all, int from, int to, Candidates<T> candidates) {
+      this.all = all;
+      this.from = from;
+      this.to = to;
+      this.candidates = candidates;
+    }
+
+    @Override
+    protected Nearest<T> compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        return findNearest(all, from, to, candidates);
+      }
+
+      int middle = (from + to) >>> 1;
+      FindNearestTask<T> left = new FindNearestTask<>(all, from, middle, candidates);
+      left.fork();
+      Nearest<T> right = new FindNearestTask<>(all, middle, to, candidates).compute();
+      Nearest<T> nearest = left.join();
+      nearest.addAll(right);
+      return nearest;
+    }
   }
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import static com.google.common.collect.Iterables.transform;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import wiremock.http.LoggedResponse;
+import wiremock.matching.RequestPattern;
+import wiremock.stubbing.ServeEvent;
+
+/**
+ * Moves request and response bodies larger than a threshold out of the heap before handing serve
+ * events to the underlying journal. Large bodies then add nothing to GC work while they're
+ * journalled.
+ *
+ * <p>The off-heap memory is freed as soon as an entry is evicted or the journal is reset, rather
+ * than whenever the entry happens to be collected. This journal keeps the entries in the order
+ * the underlying journal evicts them, so it needs the same maximum number of entries. Queries
+ * hand out copies with their bodies back on the heap, so nothing outside this journal can see a
+ * body after it's been freed.
+ */
+public class OffHeapBodyRequestJournal implements RequestJournal {
+
+  private final RequestJournal requestJournal;
+  private final int thresholdBytes;
+  private final Optional<Integer> maxEntries;
+
+  // Appends and frees take the write lock, queries the read lock, so a body is never freed while
+  // a query is reading it
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Queue<ServeEvent> retained = new ArrayDeque<>();
+
+  public OffHeapBodyRequestJournal(
+      RequestJournal requestJournal, int thresholdBytes, Optional<Integer> maxEntries) {
+    if (thresholdBytes < 0) {
+      throw new IllegalArgumentException("Off-heap body threshold must not be negative");
+    }
+    this.requestJournal = requestJournal;
+    this.thresholdBytes = thresholdBytes;
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public void requestReceived(ServeEvent serveEvent) {
+    ServeEvent offHeapServeEvent = withBodiesOffHeap(serveEvent);
+    lock.writeLock().lock();
+    try {
+      requestJournal.requestReceived(offHeapServeEvent);
+      // An unbounded journal never evicts, so only entries with something to free are tracked
+      if (maxEntries.isPresent() || offHeapServeEvent != serveEvent) {
+        retained.add(offHeapServeEvent);
+      }
+      while (maxEntries.isPresent() && retained.size() > maxEntries.get()) {
+        release(retained.poll());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int countRequestsMatching(RequestPattern requestPattern) {
+    lock.readLock().lock();
+    try {
+      return requestJournal.countRequestsMatching(requestPattern);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+    lock.readLock().lock();
+    try {
+      return ImmutableList.copyOf(
+          transform(requestJournal.getRequestsMatching(requestPattern), TO_REQUEST_ON_HEAP));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<ServeEvent> getAllServeEvents() {
+    lock.readLock().lock();
+    try {
+      return ImmutableList.copyOf(
+          transform(requestJournal.getAllServeEvents(), TO_SERVE_EVENT_ON_HEAP));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<ServeEvent> getServeEvent(UUID id) {
+    lock.readLock().lock();
+    try {
+      return requestJournal.getServeEvent(id).transform(TO_SERVE_EVENT_ON_HEAP);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId) {
+    lock.readLock().lock();
+    try {
+      return ImmutableList.copyOf(
+          transform(
+              requestJournal.getServeEventsForStubMapping(stubMappingId),
+              TO_SERVE_EVENT_ON_HEAP));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void reset() {
+    lock.writeLock().lock();
+    try {
+      requestJournal.reset();
+      ServeEvent serveEvent;
+      while ((serveEvent = retained.poll()) != null) {
+        release(serveEvent);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void flush() {
+    requestJournal.flush();
+  }
+
+  private ServeEvent withBodiesOffHeap(ServeEvent serveEvent) {
+    LoggedRequest request = serveEvent.getRequest();
+    LoggedResponse response = serveEvent.getResponse();
+    LoggedRequest offHeapRequest =
+        request != null ? request.withBodyOffHeapAbove(thresholdBytes) : null;
+    LoggedResponse offHeapResponse =
+        response != null ? response.withBodyOffHeapAbove(thresholdBytes) : null;
+
+    if (offHeapRequest == request && offHeapResponse == response) {
+      return serveEvent;
+    }
+
+    return new ServeEvent(
+        serveEvent.getId(),
+        offHeapRequest,
+        serveEvent.getStubMapping(),
+        serveEvent.getResponseDefinition(),
+        offHeapResponse,
+        false);
+  }
+
+  private static void release(ServeEvent serveEvent) {
+    if (serveEvent.getRequest() != null) {
+      serveEvent.getRequest().releaseOffHeapBody();
+    }
+    if (serveEvent.getResponse() != null) {
+      serveEvent.getResponse().releaseOffHeapBody();
+    }
+  }
+
+  private static final Function<LoggedRequest, LoggedRequest> TO_REQUEST_ON_HEAP =
+      new Function<LoggedRequest, LoggedRequest>() {
+        @Override
+        public LoggedRequest apply(LoggedRequest request) {
+          return request.withBodyOnHeap();
+        }
+      };
+
+  private static final Function<ServeEvent, ServeEvent> TO_SERVE_EVENT_ON_HEAP =
+      new Function<ServeEvent, ServeEvent>() {
+        @Override
+        public ServeEvent apply(ServeEvent serveEvent) {
+          LoggedRequest request = serveEvent.getRequest();
+          LoggedResponse response = serveEvent.getResponse();
+          LoggedRequest onHeapRequest = request != null ? request.withBodyOnHeap() : null;
+          LoggedResponse onHeapResponse = response != null ? response.withBodyOnHeap() : null;
+
+          if (onHeapRequest == request && onHeapResponse == response) {
+            return serveEvent;
+          }
+
+          return new ServeEvent(
+              serveEvent.getId(),
+              onHeapRequest,
+              serveEvent.getStubMapping(),
+              serveEvent.getResponseDefinition(),
+              onHeapResponse,
+              false);
+        }
+      };
+}
@@ -0,0 +1,617 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkState;
+import static wiremock.common.Exceptions.throwUnchecked;
+
+import com.google.common.base.Optional;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import wiremock.common.Json;
+import wiremock.common.Notifier;
+import wiremock.common.PersistentJournalSettings;
+import wiremock.matching.RequestPattern;
+import wiremock.stubbing.ServeEvent;
+
+/**
+ * Writes serve events to rolling segment files on disk as well as to an in-memory journal, which
+ * continues to answer all queries. On startup the newest segments are replayed into the in-memory
+ * journal, only as many as it can hold when its size is limited, so history survives restarts.
+ *
+ * <p>Each segment starts with a 4 byte magic number followed by records of a 4 byte length, a 4
+ * byte CRC32 and the serve event as JSON. Writes happen in batches on a background thread, from a
+ * bounded queue. Events that arrive while it's full are kept in memory but not written. They're
+ * counted in the queue stats and reported through the notifier, at most every ten seconds.
+ *
+ * <p>Batches are handed to the operating system as they're written, which is enough to survive
+ * the process crashing. Segments are only synced to the disk itself when they're closed and on
+ * {@link #flush()}, so if the host crashes, events since the last flush may be lost. On recovery a
+ * replayed segment is truncated at its first incomplete or corrupt record, which is where a crash
+ * would have left it.
+ */
+public class PersistentRequestJournal implements BackgroundRequestJournal {
+
+  private static final int SEGMENT_MAGIC = 0x574d4a31;
+  private static final int MAX_BATCH_SIZE = 512;
+  private static final int MAX_PENDING_WRITES = 16384;
+  private static final long FLUSH_TIMEOUT_MILLIS = 30000;
+  private static final long RETENTION_CHECK_INTERVAL_MILLIS = 60000;
+  private static final long DROPPED_WARNING_INTERVAL_MILLIS = 10000;
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private final RequestJournal inMemoryJournal;
+  private final File directory;
+  private final PersistentJournalSettings settings;
+  private final Optional<Integer> maxEntries;
+  private final Notifier notifier;
+
+  private final BlockingQueue<PendingWrite> pendingWrites =
+      new ArrayBlockingQueue<>(MAX_PENDING_WRITES);
+  private final Object writeLock = new Object();
+  private volatile int generation = 0;
+
+  private final Object lifecycleLock = new Object();
+  private volatile Thread writer;
+  private volatile boolean running;
+
+  private final AtomicLong enqueuedCount = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final AtomicLong droppedSinceWarning = new AtomicLong();
+  private final AtomicLong lastDroppedWarning = new AtomicLong();
+  private long writtenCount = 0;
+
+  private long nextSegmentNumber;
+  private File activeSegment;
+  private FileOutputStream activeSegmentFileOutput;
+  private DataOutputStream activeSegmentOutput;
+  private long activeSegmentSize;
+  private long lastRetentionCheck;
+
+  /**
+   * @param maxEntries the most entries the in-memory journal keeps, which limits how much history
+   *     is replayed into it on startup
+   */
+  public PersistentRequestJournal(
+      RequestJournal inMemoryJournal,
+      PersistentJournalSettings settings,
+      Optional<Integer> maxEntries,
+      Notifier notifier) {
+    this.inMemoryJournal = inMemoryJournal;
+    this.directory = new File(settings.getDirectory());
+    this.settings = settings;
+    this.maxEntries = maxEntries;
+    this.notifier = notifier;
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException(
+          "Couldn't create request journal directory " + directory.getAbsolutePath());
+    }
+
+    synchronized (writeLock) {
+      applyRetention();
+      recover();
+    }
+
+    start();
+  }
+
+  @Override
+  public void start() {
+    synchronized (lifecycleLock) {
+      if (writer != null && writer.isAlive()) {
+        return;
+      }
+
+      running = true;
+      writer =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  writeBatches();
+                }
+              },
+              "wiremock-journal-writer");
+      writer.setDaemon(true);
+      writer.start();
+    }
+  }
+
+  /**
+   * Writes out the serve events still queued, then stops the writer and closes the segment, syncing
+   * it to disk.
+   */
+  @Override
+  public void stop() {
+    synchronized (lifecycleLock) {
+      if (writer == null) {
+        return;
+      }
+
+      running = false;
+      writer.interrupt();
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      writer = null;
+
+      synchronized (writeLock) {
+        closeActiveSegment(true);
+      }
+    }
+  }
+
+  @Override
+  public void requestReceived(ServeEvent serveEvent) {
+    inMemoryJournal.requestReceived(serveEvent);
+    if (pendingWrites.offer(new PendingWrite(generation, serveEvent))) {
+      enqueuedCount.incrementAndGet();
+    } else {
+      droppedCount.incrementAndGet();
+      droppedSinceWarning.incrementAndGet();
+      warnOfDroppedWrites();
+    }
+  }
+
+  private void warnOfDroppedWrites() {
+    long now = System.currentTimeMillis();
+    long lastWarning = lastDroppedWarning.get();
+    if (now - lastWarning < DROPPED_WARNING_INTERVAL_MILLIS
+        || !lastDroppedWarning.compareAndSet(lastWarning, now)) {
+      return;
+    }
+
+    notifier.error(
+        "The request journal's write queue is full, so "
+            + droppedSinceWarning.getAndSet(0)
+            + " serve events have been kept in memory but not written to "
+            + directory.getAbsolutePath()
+            + " ("
+            + droppedCount.get()
+            + " in total)");
+  }
+
+  @Override
+  public int countRequestsMatching(RequestPattern requestPattern) {
+    return inMemoryJournal.countRequestsMatching(requestPattern);
+  }
+
+  @Override
+  public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+    return inMemoryJournal.getRequestsMatching(requestPattern);
+  }
+
+  @Override
+  public List<ServeEvent> getAllServeEvents() {
+    return inMemoryJournal.getAllServeEvents();
+  }
+
+  @Override
+  public Optional<ServeEvent> getServeEvent(UUID id) {
+    return inMemoryJournal.getServeEvent(id);
+  }
+
+  @Override
+  public List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId) {
+    return inMemoryJournal.getServeEventsForStubMapping(stubMappingId);
+  }
+
+  @Override
+  public void reset() {
+    synchronized (writeLock) {
+      generation++;
+      inMemoryJournal.reset();
+      closeActiveSegment(false);
+      for (File segment : listSegments()) {
+        deleteSegment(segment);
+      }
+    }
+  }
+
+  /**
+   * Blocks until every serve event received before this call has been written and synced to disk.
+   * Fails if that takes more than 30 seconds, or if the writer has stopped with events still to
+   * write.
+   */
+  @Override
+  public void flush() {
+    inMemoryJournal.flush();
+    long target = enqueuedCount.get();
+    long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+    synchronized (this) {
+      while (writtenCount < target) {
+        Thread currentWriter = writer;
+        checkState(
+            currentWriter != null && currentWriter.isAlive(),
+            "The request journal writer has stopped with serve events still to write");
+        long remaining = deadline - System.currentTimeMillis();
+        checkState(remaining > 0, "Timed out waiting for the request journal to be written");
+        try {
+          wait(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throwUnchecked(e);
+        }
+      }
+    }
+
+    synchronized (writeLock) {
+      if (activeSegmentOutput != null) {
+        try {
+          syncActiveSegment();
+        } catch (IOException e) {
+          throwUnchecked(e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public JournalQueueStats getQueueStats() {
+    long written;
+    synchronized (this) {
+      written = writtenCount;
+    }
+
+    return new JournalQueueStats(
+        true,
+        pendingWrites.size(),
+        MAX_PENDING_WRITES,
+        enqueuedCount.get(),
+        written,
+        droppedCount.get());
+  }
+
+  @Override
+  public boolean capturesResponsesInBackground() {
+    // Events are journaled in memory straight away, and may be read from there at any time
+    return false;
+  }
+
+  private void writeBatches() {
+    List<PendingWrite> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    try {
+      while (running || !pendingWrites.isEmpty()) {
+        try {
+          batch.add(pendingWrites.take());
+        } catch (InterruptedException e) {
+          // Stopping, so whatever is still queued is written before exiting
+        }
+        pendingWrites.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+        if (batch.isEmpty()) {
+          continue;
+        }
+
+        synchronized (writeLock) {
+          write(batch);
+        }
+
+        synchronized (this) {
+          writtenCount += batch.size();
+          notifyAll();
+        }
+        batch.clear();
+      }
+    } finally {
+      // Lets a waiting flush see that the writer has gone
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+  }
+
+  private void write(List<PendingWrite> batch) {
+    try {
+      for (PendingWrite pendingWrite : batch) {
+        // Events received before a reset are discarded along with the rest of the journal
+        if (pendingWrite.generation != generation) {
+          continue;
+        }
+
+        if (activeSegmentOutput == null) {
+          openNewSegment();
+        }
+
+        byte[] record = Json.toByteArray(pendingWrite.serveEvent);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        activeSegmentOutput.writeInt(record.length);
+        activeSegmentOutput.writeInt((int) crc.getValue());
+        activeSegmentOutput.write(record);
+        activeSegmentSize += 8 + record.length;
+
+        if (activeSegmentSize >= settings.getSegmentSizeBytes()) {
+          closeActiveSegment(true);
+          applyRetention();
+        }
+      }
+
+      if (activeSegmentOutput != null) {
+        activeSegmentOutput.flush();
+      }
+    } catch (IOException e) {
+      notifier.error("Failed to write to request journal segment " + activeSegment, e);
+      closeActiveSegment(false);
+    }
+
+    if (settings.getMaxAgeSeconds().isPresent()
+        && System.currentTimeMillis() - lastRetentionCheck > RETENTION_CHECK_INTERVAL_MILLIS) {
+      applyRetention();
+    }
+  }
+
+  private void openNewSegment() throws IOException {
+    String name = String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX);
+    activeSegment = new File(directory, name);
+    activeSegmentFileOutput = new FileOutputStream(activeSegment);
+    activeSegmentOutput = new DataOutputStream(new BufferedOutputStream(activeSegmentFileOutput));
+    activeSegmentOutput.writeInt(SEGMENT_MAGIC);
+    activeSegmentSize = 4;
+  }
+
+  /** Writes out what's buffered and waits for the disk to have it. */
+  private void syncActiveSegment() throws IOException {
+    activeSegmentOutput.flush();
+    activeSegmentFileOutput.getFD().sync();
+  }
+
+  /** Closes the segment, first syncing it unless it's about to be deleted or failed to write. */
+  private void closeActiveSegment(boolean sync) {
+    if (activeSegmentOutput != null) {
+      try {
+        if (sync) {
+          syncActiveSegment();
+        }
+      } catch (IOException e) {
+        notifier.error("Failed to sync request journal segment " + activeSegment, e);
+      }
+
+      try {
+        activeSegmentOutput.close();
+      } catch (IOException e) {
+        notifier.error("Failed to close request journal segment " + activeSegment, e);
+      }
+    }
+
+    activeSegmentFileOutput = null;
+    activeSegmentOutput = null;
+    activeSegment = null;
+  }
+
+  private void applyRetention() {
+    lastRetentionCheck = System.currentTimeMillis();
+
+    List<File> segments = listSegments();
+    long totalBytes = 0;
+    for (File segment : segments) {
+      totalBytes += segment.length();
+    }
+
+    Optional<Long> maxBytes = settings.getMaxRetainedBytes();
+    Optional<Long> maxAgeSeconds = settings.getMaxAgeSeconds();
+    long oldestRetained =
+        maxAgeSeconds.isPresent() ? lastRetentionCheck - maxAgeSeconds.get() * 1000 : 0;
+
+    for (File segment : segments) {
+      if (segment.equals(activeSegment)) {
+        continue;
+      }
+
+      boolean tooLarge = maxBytes.isPresent() && totalBytes > maxBytes.get();
+      boolean tooOld = segment.lastModified() < oldestRetained;
+      if (tooLarge || tooOld) {
+        totalBytes -= segment.length();
+        deleteSegment(segment);
+      }
+    }
+  }
+
+  private void recover() {
+    List<File> segments = listSegments();
+    for (File segment : segments) {
+      nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(segment) + 1);
+    }
+
+    for (File segment : segments.subList(firstSegmentToReplay(segments), segments.size())) {
+      try {
+        long validLength = replay(segment);
+        if (validLength <= 4) {
+          deleteSegment(segment);
+        } else if (validLength < segment.length()) {
+          notifier.info(
+              "Truncating request journal segment "
+                  + segment
+                  + " to "
+                  + validLength
+                  + " bytes after an incomplete or corrupt record");
+          truncate(segment, validLength);
+        }
+      } catch (IOException e) {
+        notifier.error("Failed to recover request journal segment " + segment, e);
+      }
+    }
+  }
+
+  /**
+   * The oldest segment that still has records the in-memory journal would keep, going by the
+   * record headers alone. Anything older would be evicted as soon as it was replayed.
+   */
+  private int firstSegmentToReplay(List<File> segments) {
+    if (!maxEntries.isPresent()) {
+      return 0;
+    }
+
+    long records = 0;
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      try {
+        records += countRecords(segments.get(i));
+      } catch (IOException e) {
+        notifier.error("Failed to read request journal segment " + segments.get(i), e);
+      }
+
+      if (records >= maxEntries.get()) {
+        return i;
+      }
+    }
+
+    return 0;
+  }
+
+  private static long countRecords(File segment) throws IOException {
+    try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long position = 4;
+      long records = 0;
+      ByteBuffer header = ByteBuffer.allocate(8);
+      while (position + 8 <= size) {
+        header.clear();
+        if (channel.read(header, position) < 8) {
+          break;
+        }
+
+        int length = header.getInt(0);
+        if (length < 0 || length > size - position - 8) {
+          break;
+        }
+
+        position += 8 + length;
+        records++;
+      }
+
+      return records;
+    }
+  }
+
+  private long replay(File segment) throws IOException {
+    long validLength = 0;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(segment)))) {
+      long remaining = segment.length();
+      if (remaining < 4 || in.readInt() != SEGMENT_MAGIC) {
+        return 0;
+      }
+
+      validLength = 4;
+      remaining -= 4;
+      while (remaining >= 8) {
+        int length = in.readInt();
+        int expectedCrc = in.readInt();
+        if (length < 0 || length > remaining - 8) {
+          break;
+        }
+
+        byte[] record = new byte[length];
+        in.readFully(record);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if ((int) crc.getValue() != expectedCrc) {
+          break;
+        }
+
+        try {
+          inMemoryJournal.requestReceived(Json.read(new String(record, UTF_8), ServeEvent.class));
+        } catch (RuntimeException e) {
+          notifier.error("Skipping unreadable serve event in journal segment " + segment, e);
+        }
+
+        validLength += 8 + length;
+        remaining -= 8 + length;
+      }
+
+    } catch (EOFException e) {
+      // The segment was shorter than its length suggested, so keep what was read
+    }
+
+    return validLength;
+  }
+
+  private static void truncate(File segment, long length) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      file.setLength(length);
+    }
+  }
+
+  private void deleteSegment(File segment) {
+    if (!segment.delete()) {
+      notifier.error("Failed to delete request journal segment " + segment);
+    }
+  }
+
+  private List<File> listSegments() {
+    File[] segments =
+        directory.listFiles(
+            new FilenameFilter() {
+              @Override
+              public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+              }
+            });
+    if (segments == null) {
+      return new ArrayList<>();
+    }
+
+    // Zero padded numbers, so name order is creation order
+    Arrays.sort(segments);
+    return new ArrayList<>(Arrays.asList(segments));
+  }
+
+  private static long segmentNumber(File segment) {
+    String name = segment.getName();
+    try {
+      return Long.parseLong(
+          name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static class PendingWrite {
+
+    final int generation;
+    final ServeEvent serveEvent;
+
+    PendingWrite(int generation, ServeEvent serveEvent) {
+      this.generation = generation;
+      this.serveEvent = serveEvent;
+    }
+  }
+}
@@ -31,7 +31,12 @@ public interface RequestJournal {
 
   Optional<ServeEvent> getServeEvent(UUID id);
 
+  List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId);
+
   void reset();
 
   void requestReceived(ServeEvent serveEvent);
+
+  /** Blocks until every serve event received before this call can be seen by queries. */
+  void flush();
 }
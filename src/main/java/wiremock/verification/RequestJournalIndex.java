@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import static wiremock.stubbing.IndexKeys.isCustom;
+import static wiremock.stubbing.IndexKeys.isIndexableUrlPattern;
+import static wiremock.stubbing.IndexKeys.isPathPattern;
+import static wiremock.stubbing.IndexKeys.literalEqualToValue;
+import static wiremock.stubbing.IndexKeys.safelyGetPath;
+
+import com.google.common.base.Optional;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import wiremock.http.RequestMethod;
+import wiremock.matching.RequestPattern;
+import wiremock.matching.UrlPattern;
+import wiremock.stubbing.ServeEvent;
+import wiremock.stubbing.StubMapping;
+
+/**
+ * Secondary indexes over the journal's entries, by serve event ID, matched stub ID, method and URL
+ * path. Lookups return entries oldest first, and ignore entries older than the last clear.
+ */
+class RequestJournalIndex {
+
+  private final ConcurrentMap<UUID, JournalEntry> byId = new ConcurrentHashMap<>();
+  private final Buckets<UUID> byStubMappingId = new Buckets<>();
+  private final Buckets<RequestMethod> byMethod = new Buckets<>();
+  private final Buckets<String> byUrlPath = new Buckets<>();
+
+  private volatile long firstRetainedSequence = 0;
+
+  void add(JournalEntry entry) {
+    byId.put(entry.serveEvent.getId(), entry);
+
+    UUID stubMappingId = stubMappingIdOf(entry.serveEvent);
+    if (stubMappingId != null) {
+      byStubMappingId.add(stubMappingId, entry);
+    }
+
+    LoggedRequest request = entry.serveEvent.getRequest();
+    if (request != null) {
+      byMethod.add(request.getMethod(), entry);
+
+      String path = safelyGetPath(request.getUrl());
+      if (path != null) {
+        byUrlPath.add(path, entry);
+      }
+    }
+  }
+
+  void remove(JournalEntry entry) {
+    byId.remove(entry.serveEvent.getId(), entry);
+
+    UUID stubMappingId = stubMappingIdOf(entry.serveEvent);
+    if (stubMappingId != null) {
+      byStubMappingId.remove(stubMappingId, entry);
+    }
+
+    LoggedRequest request = entry.serveEvent.getRequest();
+    if (request != null) {
+      byMethod.remove(request.getMethod(), entry);
+
+      String path = safelyGetPath(request.getUrl());
+      if (path != null) {
+        byUrlPath.remove(path, entry);
+      }
+    }
+  }
+
+  void clear(long firstRetainedSequence) {
+    this.firstRetainedSequence = firstRetainedSequence;
+    byId.clear();
+    byStubMappingId.clear();
+    byMethod.clear();
+    byUrlPath.clear();
+  }
+
+  Optional<ServeEvent> get(UUID id) {
+    JournalEntry entry = byId.get(id);
+    return entry != null && entry.sequence >= firstRetainedSequence
+        ? Optional.of(entry.serveEvent)
+        : Optional.<ServeEvent>absent();
+  }
+
+  Collection<ServeEvent> forStubMapping(UUID stubMappingId) {
+    return byStubMappingId.get(stubMappingId, firstRetainedSequence);
+  }
+
+  /**
+   * The entries that could match the pattern, narrowed by its literal URL path or method. Absent
+   * when the pattern has neither, in which case every entry has to be considered.
+   */
+  Optional<Collection<ServeEvent>> candidatesFor(RequestPattern requestPattern) {
+    if (isCustom(requestPattern)) {
+      return Optional.absent();
+    }
+
+    UrlPattern urlPattern = requestPattern.getUrlMatcher();
+    if (isIndexableUrlPattern(urlPattern)) {
+      String literalUrl = literalEqualToValue(urlPattern);
+      String path = isPathPattern(urlPattern) ? literalUrl : safelyGetPath(literalUrl);
+      if (path != null) {
+        return Optional.of(byUrlPath.get(path, firstRetainedSequence));
+      }
+    }
+
+    RequestMethod method = requestPattern.getMethod();
+    if (method != null && !method.equals(RequestMethod.ANY)) {
+      return Optional.of(byMethod.get(method, firstRetainedSequence));
+    }
+
+    return Optional.absent();
+  }
+
+  private static UUID stubMappingIdOf(ServeEvent serveEvent) {
+    StubMapping stubMapping = serveEvent.getStubMapping();
+    return stubMapping != null ? stubMapping.getId() : null;
+  }
+
+  private static class Buckets<K> {
+
+    private final ConcurrentMap<K, Bucket> buckets = new ConcurrentHashMap<>();
+
+    void add(K key, JournalEntry entry) {
+      while (true) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+          Bucket created = new Bucket();
+          bucket = buckets.putIfAbsent(key, created);
+          if (bucket == null) {
+            bucket = created;
+          }
+        }
+
+        synchronized (bucket) {
+          // A bucket emptied and unmapped concurrently can't be written to, so look again
+          if (!bucket.retired) {
+            bucket.entries.put(entry.sequence, entry.serveEvent);
+            return;
+          }
+        }
+      }
+    }
+
+    void remove(K key, JournalEntry entry) {
+      Bucket bucket = buckets.get(key);
+      if (bucket == null) {
+        return;
+      }
+
+      synchronized (bucket) {
+        bucket.entries.remove(entry.sequence, entry.serveEvent);
+        if (bucket.entries.isEmpty()) {
+          bucket.retired = true;
+          buckets.remove(key, bucket);
+        }
+      }
+    }
+
+    Collection<ServeEvent> get(K key, long fromSequence) {
+      Bucket bucket = buckets.get(key);
+      return bucket != null
+          ? bucket.entries.tailMap(fromSequence).values()
+          : Collections.<ServeEvent>emptyList();
+    }
+
+    void clear() {
+      buckets.clear();
+    }
+  }
+
+  private static class Bucket {
+    final ConcurrentSkipListMap<Long, ServeEvent> entries = new ConcurrentSkipListMap<>();
+    boolean retired = false;
+  }
+}
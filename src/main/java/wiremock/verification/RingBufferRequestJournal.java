@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.size;
+import static com.google.common.collect.Iterables.transform;
+import static wiremock.matching.RequestPattern.thatMatch;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import wiremock.matching.RequestPattern;
+import wiremock.stubbing.ServeEvent;
+
+/**
+ * A journal holding at most a fixed number of entries in a pre-allocated ring buffer. Appending is
+ * lock-free and constant time, with the oldest entry overwritten once the buffer is full. Reads
+ * take a snapshot of the entries present at the time of the call.
+ */
+public class RingBufferRequestJournal implements RequestJournal {
+
+  private final int capacity;
+  private final AtomicReferenceArray<JournalEntry> slots;
+  private final AtomicLong nextSequence = new AtomicLong();
+  private final RequestJournalIndex index = new RequestJournalIndex();
+  private volatile long firstRetainedSequence = 0;
+
+  public RingBufferRequestJournal(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException(
+          "Maximum number of entries of journal must not be negative");
+    }
+    this.capacity = capacity;
+    this.slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  @Override
+  public void requestReceived(ServeEvent serveEvent) {
+    if (capacity == 0) {
+      return;
+    }
+
+    JournalEntry entry = new JournalEntry(nextSequence.getAndIncrement(), serveEvent);
+    int slot = slotFor(entry.sequence);
+    // Indexed before it becomes visible, so that whichever writer evicts it can un-index it
+    index.add(entry);
+    while (true) {
+      JournalEntry current = slots.get(slot);
+      // A slower writer can arrive after a newer entry has already taken its slot, in which case
+      // its own entry has already been evicted
+      if (current != null && current.sequence > entry.sequence) {
+        index.remove(entry);
+        return;
+      }
+      if (slots.compareAndSet(slot, current, entry)) {
+        if (current != null) {
+          index.remove(current);
+        }
+        return;
+      }
+    }
+  }
+
+  @Override
+  public int countRequestsMatching(RequestPattern requestPattern) {
+    return size(filter(getRequests(requestPattern), thatMatch(requestPattern)));
+  }
+
+  @Override
+  public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+    return ImmutableList.copyOf(filter(getRequests(requestPattern), thatMatch(requestPattern)));
+  }
+
+  @Override
+  public List<ServeEvent> getAllServeEvents() {
+    return ImmutableList.copyOf(snapshot()).reverse();
+  }
+
+  @Override
+  public Optional<ServeEvent> getServeEvent(UUID id) {
+    return index.get(id);
+  }
+
+  @Override
+  public List<ServeEvent> getServeEventsForStubMapping(UUID stubMappingId) {
+    return ImmutableList.copyOf(index.forStubMapping(stubMappingId));
+  }
+
+  @Override
+  public void reset() {
+    long resetAt = nextSequence.get();
+    firstRetainedSequence = resetAt;
+    index.clear(resetAt);
+    for (int i = 0; i < capacity; i++) {
+      JournalEntry current = slots.get(i);
+      if (current != null && current.sequence < resetAt) {
+        slots.compareAndSet(i, current, null);
+      }
+    }
+  }
+
+  @Override
+  public void flush() {
+    // Serve events are journaled as they're received
+  }
+
+  /** The retained serve events, oldest first. */
+  private List<ServeEvent> snapshot() {
+    long end = nextSequence.get();
+    long start = Math.max(Math.max(0, end - capacity), firstRetainedSequence);
+    List<ServeEvent> serveEvents = new ArrayList<>((int) Math.max(0, end - start));
+    for (long sequence = start; sequence < end; sequence++) {
+      JournalEntry entry = slots.get(slotFor(sequence));
+      // Skips entries still being written and those overwritten since the snapshot began
+      if (entry != null && entry.sequence == sequence) {
+        serveEvents.add(entry.serveEvent);
+      }
+    }
+
+    return serveEvents;
+  }
+
+  private Iterable<LoggedRequest> getRequests(RequestPattern requestPattern) {
+    Optional<Collection<ServeEvent>> candidates = index.candidatesFor(requestPattern);
+    return transform(
+        candidates.isPresent() ? candidates.get() : snapshot(), ServeEvent.TO_LOGGED_REQUEST);
+  }
+
+  private int slotFor(long sequence) {
+    return (int) (sequence % capacity);
+  }
+}
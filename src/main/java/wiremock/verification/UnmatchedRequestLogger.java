@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package wiremock.verification;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import wiremock.common.Notifier;
+import wiremock.common.ParsedDocumentCache;
+import wiremock.http.HttpHeader;
+import wiremock.verification.diff.PlainTextDiffRenderer;
+
+/**
+ * Logs the closest stub mappings to each unmatched request. Finding them means scoring every stub,
+ * so it happens on a single background thread rather than before the 404 is sent.
+ *
+ * <p>When unmatched requests arrive faster than the rate limit, or faster than they can be
+ * scored, the excess are counted rather than logged. A request identical to one already logged is
+ * skipped until the stub mappings next change.
+ */
+public class UnmatchedRequestLogger {
+
+  private static final int MAX_QUEUED_REQUESTS = 100;
+  private static final double MAX_LOGGED_PER_SECOND = 10;
+  private static final int MAX_REMEMBERED_REQUESTS = 1000;
+
+  private static final PlainTextDiffRenderer diffRenderer = new PlainTextDiffRenderer();
+
+  private final NearMissCalculator nearMissCalculator;
+  private final ThreadPoolExecutor executor;
+  private final RateLimiter rateLimiter = RateLimiter.create(MAX_LOGGED_PER_SECOND);
+  private final Cache<HashCode, Boolean> loggedRequests =
+      CacheBuilder.newBuilder().maximumSize(MAX_REMEMBERED_REQUESTS).build();
+  private final AtomicLong unloggedCount = new AtomicLong();
+
+  public UnmatchedRequestLogger(NearMissCalculator nearMissCalculator) {
+    this.nearMissCalculator = nearMissCalculator;
+    this.executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(MAX_QUEUED_REQUESTS),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("wiremock-unmatched-request-logger-%d")
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  public void requestUnmatched(final LoggedRequest request, final Notifier notifier) {
+    final HashCode fingerprint = fingerprint(request);
+    if (loggedRequests.getIfPresent(fingerprint) != null) {
+      return;
+    }
+
+    if (!rateLimiter.tryAcquire()) {
+      unloggedCount.incrementAndGet();
+      return;
+    }
+
+    if (loggedRequests.asMap().putIfAbsent(fingerprint, Boolean.TRUE) != null) {
+      return;
+    }
+
+    try {
+      executor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              try (ParsedDocumentCache.Scope ignored = ParsedDocumentCache.openScope()) {
+                notifier.error(messageFor(request));
+              }
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      loggedRequests.invalidate(fingerprint);
+      unloggedCount.incrementAndGet();
+    }
+  }
+
+  /** Call whenever stub mappings are added, edited or removed, as near misses may then differ. */
+  public void stubMappingsChanged() {
+    loggedRequests.invalidateAll();
+  }
+
+  private String messageFor(LoggedRequest request) {
+    List<NearMiss> nearest = nearMissCalculator.findNearestTo(request);
+    String message;
+    if (!nearest.isEmpty()) {
+      message = diffRenderer.render(nearest.get(0).getDiff());
+    } else {
+      message = "Request was not matched as there were no stubs registered:\n" + request;
+    }
+
+    long unlogged = unloggedCount.getAndSet(0);
+    if (unlogged > 0) {
+      message +=
+          "\n"
+              + unlogged
+              + " other unmatched request(s) weren't logged as they arrived too quickly";
+    }
+
+    return message;
+  }
+
+  private static HashCode fingerprint(LoggedRequest request) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    hasher.putString(request.getMethod().getName(), UTF_8).putString(request.getUrl(), UTF_8);
+    if (request.getHeaders() != null) {
+      for (HttpHeader header : request.getHeaders().all()) {
+        hasher.putString(header.key(), UTF_8);
+        for (String value : header.values()) {
+          hasher.putString(value, UTF_8);
+        }
+      }
+    }
+
+    byte[] body = request.getBody();
+    if (body != null) {
+      hasher.putBytes(body);
+    }
+
+    return hasher.hash();
+  }
+}